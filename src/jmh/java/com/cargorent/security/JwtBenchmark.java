@@ -0,0 +1,37 @@
+package com.cargorent.security;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Token parsing and signature check done by the JWT filter on every request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-key-that-is-long-enough-for-hs256", 3_600_000L, 86_400_000L,
+                10_000L);
+        accessToken = jwtUtil.generateAccessToken(42L, "CUSTOMER");
+    }
+
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtUtil.extractClaims(accessToken);
+    }
+
+    // What the filter calls; after the first call this is a cache hit
+    @Benchmark
+    public UserPrincipal authenticate() {
+        return jwtUtil.authenticate(accessToken);
+    }
+}
@@ -0,0 +1,61 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.CarListingView;
+import com.cargorent.dto.CarResponseDto;
+import com.cargorent.entity.CarType;
+import com.cargorent.entity.CompanyType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Projection-to-DTO mapping as done for car listings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarMappingBenchmark {
+
+    @Param({ "100", "10000" })
+    int carCount;
+
+    private CarServiceImpl carService;
+    private List<CarListingView> cars;
+
+    @Setup
+    public void setUp() {
+        carService = new CarServiceImpl(null, null, null, null, null);
+
+        cars = new ArrayList<>(carCount);
+        for (int i = 0; i < carCount; i++) {
+            long ratingCount = i % 50;
+            cars.add(new CarListingView(
+                    (long) i,
+                    "Model " + i,
+                    "Brand " + (i % 20),
+                    50.0 + i % 100,
+                    true,
+                    true,
+                    null,
+                    1L,
+                    "Fleet Co",
+                    CompanyType.NORMAL,
+                    "Pune",
+                    CarType.values()[i % CarType.values().length],
+                    4 + i % 4,
+                    "Car " + i,
+                    null,
+                    null,
+                    ratingCount,
+                    ratingCount * 4L));
+        }
+    }
+
+    @Benchmark
+    public List<CarResponseDto> mapToDto() {
+        return cars.stream().map(carService::mapToDto).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderItemResponseDto;
+import com.cargorent.dto.OrderResponseDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full PDF layout of one invoice, buffered and streamed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceRenderBenchmark {
+
+    @Param({ "1", "20" })
+    int itemCount;
+
+    private InvoiceServiceImpl invoiceService;
+    private OrderResponseDto order;
+
+    @Setup
+    public void setUp() {
+        invoiceService = new InvoiceServiceImpl();
+
+        List<OrderItemResponseDto> items = new ArrayList<>(itemCount);
+        double total = 0;
+        for (int i = 0; i < itemCount; i++) {
+            double price = 120.0 * (i + 1);
+            total += price;
+            items.add(new OrderItemResponseDto((long) i, "Model " + i, i + 1, price, false));
+        }
+        order = new OrderResponseDto(42L, total, "CONFIRMED", LocalDateTime.of(2026, 1, 31, 10, 0), 7L, 3L, null,
+                items);
+    }
+
+    @Benchmark
+    public ByteArrayInputStream generateInvoice() {
+        return invoiceService.generateInvoice(order);
+    }
+
+    @Benchmark
+    public long writeInvoice() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        invoiceService.writeInvoice(order, out);
+        return out.count;
+    }
+
+    // Stands in for the response stream without keeping the bytes
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
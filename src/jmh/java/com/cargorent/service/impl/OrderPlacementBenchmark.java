@@ -0,0 +1,187 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.CargorentApplication;
+import com.cargorent.dto.CarRequestDto;
+import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.dto.PlaceOrderRequest;
+import com.cargorent.entity.CarType;
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Role;
+import com.cargorent.entity.User;
+import com.cargorent.repository.CompanyRepository;
+import com.cargorent.repository.UserRepository;
+import com.cargorent.service.CarService;
+import com.cargorent.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Full placeOrder against an in-memory H2 database, counting the JDBC executions it makes next to the
+// time. A JDBC batch counts as one execution, as it is one round trip with rewriteBatchedStatements.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPlacementBenchmark {
+
+    // Only statements run by the benchmark thread are counted, not the app's scheduled jobs
+    private static volatile Thread measuredThread;
+    private static final AtomicLong executions = new AtomicLong();
+
+    // Each item books one car for three days, as in a typical multi-car order
+    @Param({ "1", "10" })
+    int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Long customerId;
+    private Long companyId;
+    private List<Long> carIds;
+    private LocalDate nextStart;
+
+    // JMH sums EVENTS counters over the measurement iterations, so round trips per order is
+    // statements / orders from the result
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long statements;
+        public long orders;
+
+        private long startExecutions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            measuredThread = Thread.currentThread();
+            startExecutions = executions.get();
+            statements = 0;
+            orders = 0;
+        }
+
+        void orderPlaced() {
+            orders++;
+            statements = executions.get() - startExecutions;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CargorentApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+                    }
+                }))
+                // Command-line arguments, so they win over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "NON_KEYWORDS=USER,VALUE,KEY",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--cargorent.outbox.relay-enabled=false",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+
+        orderService = context.getBean(OrderService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        CompanyRepository companyRepository = context.getBean(CompanyRepository.class);
+        CarService carService = context.getBean(CarService.class);
+
+        User companyUser = userRepository.save(User.builder().name("Fleet").email("fleet@bench.local")
+                .password("x").role(Role.COMPANY).build());
+        Company company = companyRepository.save(Company.builder().companyName("Fleet Co").address("Pune")
+                .isActive(true).user(companyUser).build());
+        User customer = userRepository.save(User.builder().name("Customer").email("customer@bench.local")
+                .password("x").role(Role.CUSTOMER).build());
+        customerId = customer.getId();
+        companyId = company.getId();
+
+        carIds = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            carIds.add(carService.addCar(companyId, new CarRequestDto("Brand", "Model " + i, 40.0 + i, null,
+                    "Pune", CarType.values()[i % CarType.values().length], 4, "Car " + i)).getId());
+        }
+        nextStart = LocalDate.now().plusDays(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long placeOrder(RoundTrips roundTrips) {
+        // A fresh window every call, so no order conflicts with an earlier one
+        LocalDate start = nextStart;
+        nextStart = start.plusDays(3);
+
+        List<OrderItemRequest> items = new ArrayList<>(itemCount);
+        for (Long carId : carIds) {
+            items.add(new OrderItemRequest(carId, start, start.plusDays(2)));
+        }
+        Long orderId = orderService.placeOrder(new PlaceOrderRequest(null, companyId, null, items), customerId, null)
+                .getOrderId();
+        roundTrips.orderPlaced();
+        return orderId;
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countExecutions(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countExecutions(super.getConnection(username, password), Connection.class);
+        }
+
+        // Wraps a connection, and the statements it hands out, to count every execute* call
+        @SuppressWarnings("unchecked")
+        private static <T> T countExecutions(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                if (target instanceof Statement && method.getName().startsWith("execute")
+                        && Thread.currentThread() == measuredThread) {
+                    executions.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (target instanceof Connection && result instanceof Statement) {
+                    Class<?> returned = method.getReturnType();
+                    return countExecutions(result, (Class<Object>) returned);
+                }
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.entity.Car;
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory part of placement: per-item rental days, prices and order totals
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    @Param({ "1", "10", "100" })
+    int itemCount;
+
+    private User customer;
+    private Company company;
+    private List<OrderItemRequest> items;
+    private Map<Long, Car> carsById;
+
+    @Setup
+    public void setUp() {
+        customer = User.builder().id(1L).name("Customer").build();
+        company = Company.builder().id(2L).companyName("Fleet Co").build();
+
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        items = new ArrayList<>(itemCount);
+        carsById = new HashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            long carId = i + 1;
+            carsById.put(carId, Car.builder().id(carId).model("Model " + i).pricePerDay(40.0 + i).build());
+            items.add(new OrderItemRequest(carId, start.plusDays(i % 7), start.plusDays(i % 7 + 1 + i % 14)));
+        }
+    }
+
+    @Benchmark
+    public Order buildOrder() {
+        return OrderPlacement.buildOrder(customer, company, null, OrderStatus.PLACED, null, items, carsById);
+    }
+
+    @Benchmark
+    public long rentalDays() {
+        long days = 0;
+        for (OrderItemRequest item : items) {
+            days += OrderPlacement.rentalDays(item.getStartDate(), item.getEndDate());
+        }
+        return days;
+    }
+}
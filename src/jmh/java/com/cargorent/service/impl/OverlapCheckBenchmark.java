@@ -0,0 +1,74 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.entity.Car;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Overlap checks run on every placement: within the request and against loaded bookings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapCheckBenchmark {
+
+    @Param({ "10", "100" })
+    int itemCount;
+
+    @Param({ "10", "200" })
+    int bookingsPerCar;
+
+    private List<OrderItemRequest> items;
+    private Map<Long, Car> carsById;
+    private Map<Long, List<LocalDate[]>> bookingsByCar;
+
+    // Built once per trial: neither check modifies its inputs
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        int carCount = Math.max(1, itemCount / 5);
+
+        carsById = new HashMap<>();
+        bookingsByCar = new HashMap<>();
+        for (long carId = 1; carId <= carCount; carId++) {
+            carsById.put(carId, Car.builder().id(carId).model("Model " + carId).build());
+
+            // Existing bookings sit before the requested window so every range is compared
+            List<LocalDate[]> bookings = new ArrayList<>(bookingsPerCar);
+            for (int i = 0; i < bookingsPerCar; i++) {
+                bookings.add(new LocalDate[] { base.plusDays(2L * i), base.plusDays(2L * i) });
+            }
+            bookingsByCar.put(carId, bookings);
+        }
+
+        // Several non-overlapping items per car after all existing bookings
+        LocalDate windowStart = base.plusDays(2L * bookingsPerCar + 1);
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            long carId = i % carCount + 1;
+            int slot = i / carCount;
+            items.add(new OrderItemRequest(carId, windowStart.plusDays(3L * slot),
+                    windowStart.plusDays(3L * slot + 1)));
+        }
+    }
+
+    @Benchmark
+    public List<OrderItemRequest> withinRequest() {
+        OrderReservations.checkNoOverlapWithinRequest(items, carsById);
+        return items;
+    }
+
+    @Benchmark
+    public Map<Long, List<LocalDate[]>> againstExistingBookings() {
+        OrderReservations.checkNoExistingBookings(items, carsById, bookingsByCar);
+        return bookingsByCar;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cargorent.config;
+
+import com.cargorent.entity.OrderStatus;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Fills car_booking_days for bookings made before the table existed. An empty table is the
+// marker: once it holds a slot, later boots stop after one count query. Runs before the web
+// server starts, so no booking can race the backfill.
+@Component
+@lombok.extern.slf4j.Slf4j
+public class BookingDayBackfill implements SmartInitializingSingleton {
+
+    // Every day of every current booking that still holds its car. The cast stops H2 from
+    // typing the recursive column as text; MySQL does not need it
+    private static final String BOOKED_DAYS = """
+            WITH RECURSIVE booked_days (car_id, booking_day, end_date, order_id) AS (
+                SELECT oi.car_id, oi.start_date, oi.end_date, oi.order_id
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                WHERE o.status IN (%s)
+                AND oi.end_date >= CURDATE()
+                UNION ALL
+                SELECT car_id, CAST(booking_day AS DATE) + INTERVAL '1' DAY, end_date, order_id
+                FROM booked_days
+                WHERE booking_day < end_date
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingDayBackfill(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Integer slots = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM car_booking_days LIMIT 1) t",
+                    Integer.class);
+            if (slots != null && slots > 0) {
+                return;
+            }
+
+            String statuses = String.join(", ", Collections.nCopies(OrderStatus.OCCUPYING.size(), "?"));
+            Object[] args = OrderStatus.OCCUPYING.stream().map(Enum::name).toArray();
+            String bookedDays = BOOKED_DAYS.formatted(statuses);
+
+            // Bookings made before the slots existed may already overlap; the first order
+            // keeps the day and the others are reported for someone to sort out
+            List<Map<String, Object>> conflicts = jdbcTemplate.queryForList(bookedDays + """
+                    SELECT car_id, booking_day, GROUP_CONCAT(order_id ORDER BY order_id) AS order_ids
+                    FROM booked_days
+                    GROUP BY car_id, booking_day
+                    HAVING COUNT(*) > 1
+                    ORDER BY car_id, booking_day
+                    """, args);
+            for (Map<String, Object> conflict : conflicts) {
+                log.warn("Car {} is booked more than once on {} (orders {}); keeping the first",
+                        conflict.get("car_id"), conflict.get("booking_day"), conflict.get("order_ids"));
+            }
+
+            int inserted = jdbcTemplate.update("INSERT INTO car_booking_days (car_id, booking_day, order_id) "
+                    + bookedDays + """
+                    SELECT car_id, booking_day, MIN(order_id)
+                    FROM booked_days
+                    GROUP BY car_id, booking_day
+                    """, args);
+            if (inserted > 0) {
+                log.info("Backfilled {} car booking days ({} double-booked)", inserted, conflicts.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not backfill car_booking_days", e);
+        }
+    }
+}
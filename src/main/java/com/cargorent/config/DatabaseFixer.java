@@ -46,6 +46,40 @@ public class DatabaseFixer implements CommandLineRunner {
             System.out.println("⚠️ Error backfilling company_type: " + e.getMessage());
         }
 
+        // FIX 4: Backfill rating aggregates for cars rated before rating_count/rating_sum existed.
+        // Once filled, no car has ratings with a zero count, so later boots update nothing.
+        // A full rebuild stays available as POST /api/admin/ratings/reconcile.
+        try {
+            int updated = jdbcTemplate.update("""
+                    UPDATE cars c
+                    SET c.rating_count = (SELECT COUNT(*) FROM ratings r WHERE r.car_id = c.id),
+                        c.rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM ratings r WHERE r.car_id = c.id)
+                    WHERE c.rating_count = 0
+                    AND EXISTS (SELECT 1 FROM ratings r WHERE r.car_id = c.id)
+                    """);
+            if (updated > 0) {
+                System.out.println("✅ Backfilled rating stats for " + updated + " cars");
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Error backfilling rating stats: " + e.getMessage());
+        }
+
+        // FIX 5: Backfill order start/end dates used by the lifecycle job
+        try {
+            int updated = jdbcTemplate.update("""
+                    UPDATE orders o
+                    JOIN (SELECT order_id, MIN(start_date) AS first_day, MAX(end_date) AS last_day
+                          FROM order_items GROUP BY order_id) d ON d.order_id = o.id
+                    SET o.start_date = d.first_day, o.end_date = d.last_day
+                    WHERE o.start_date IS NULL
+                    """);
+            if (updated > 0) {
+                System.out.println("✅ Backfilled start/end dates for " + updated + " orders");
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Error backfilling order dates: " + e.getMessage());
+        }
+
         System.out.println("🔧 Database Schema Fixes Completed.");
     }
 }
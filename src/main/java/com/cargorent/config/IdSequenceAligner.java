@@ -0,0 +1,45 @@
+package com.cargorent.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Moves the pooled id generators past ids handed out by the old IDENTITY columns. Runs once all
+// singletons (and so the schema update) are ready but before the web server starts, so no request
+// can draw an id from a stale block. A failure stops startup instead of risking duplicate keys.
+@Component
+@lombok.extern.slf4j.Slf4j
+public class IdSequenceAligner implements SmartInitializingSingleton {
+
+    private static final String[] TABLES = { "orders", "order_items", "ratings", "cars" };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String table : TABLES) {
+            // Only table-backed generators (MySQL) need this; native sequences have no _seq table
+            Integer exists = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                    + "WHERE table_schema = DATABASE() AND table_name = ?", Integer.class, table + "_seq");
+            if (exists == null || exists == 0) {
+                continue;
+            }
+            try {
+                int updated = jdbcTemplate.update("UPDATE " + table + "_seq SET next_val = GREATEST(next_val, "
+                        + "(SELECT COALESCE(MAX(id), 0) + 51 FROM " + table + "))");
+                if (updated != 1) {
+                    throw new IllegalStateException(table + "_seq should hold one row but has " + updated);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Could not align " + table + "_seq with existing ids", e);
+            }
+        }
+        log.info("Id generators aligned with existing ids");
+    }
+}
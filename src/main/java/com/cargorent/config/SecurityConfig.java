@@ -1,6 +1,7 @@
 package com.cargorent.config;
 
 import com.cargorent.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -56,9 +57,12 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(authenticationEntryPoint()))
                 .authorizeHttpRequests(auth -> auth
+                        // Re-dispatches of a streamed response; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/users/register").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/cars/search", "/api/cars/public", "/api/cars/{id}", "/api/ratings/car/**")
+                        .requestMatchers(HttpMethod.GET, "/api/cars/search", "/api/cars/search/page", "/api/cars/public",
+                                "/api/cars/public/page", "/api/cars/{id}", "/api/ratings/car/**")
                         .permitAll()
                         .anyRequest().authenticated())
                 .addFilterBefore(
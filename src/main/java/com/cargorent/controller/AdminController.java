@@ -1,12 +1,27 @@
 package com.cargorent.controller;
 
 import com.cargorent.entity.Company;
+import com.cargorent.security.JwtUtil;
+import com.cargorent.security.PasswordHasher;
 import com.cargorent.service.CompanyService;
+import com.cargorent.service.OutboxService;
+import com.cargorent.service.RatingService;
+import com.cargorent.service.impl.CarCatalogCache;
+import com.cargorent.service.impl.CompanyPrincipalCache;
+import com.cargorent.service.impl.InvoiceExporter;
+import com.cargorent.service.impl.InvoiceStore;
+import com.cargorent.service.impl.OrderIntakeQueue;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -15,9 +30,30 @@ import java.util.List;
 public class AdminController {
 
     private final CompanyService companyService;
+    private final RatingService ratingService;
+    private final CarCatalogCache carCatalogCache;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final OutboxService outboxService;
+    private final InvoiceStore invoiceStore;
+    private final InvoiceExporter invoiceExporter;
+    private final JwtUtil jwtUtil;
+    private final CompanyPrincipalCache companyPrincipalCache;
+    private final PasswordHasher passwordHasher;
 
-    public AdminController(CompanyService companyService) {
+    public AdminController(CompanyService companyService, RatingService ratingService,
+            CarCatalogCache carCatalogCache, OrderIntakeQueue orderIntakeQueue, OutboxService outboxService,
+            InvoiceStore invoiceStore, InvoiceExporter invoiceExporter, JwtUtil jwtUtil,
+            CompanyPrincipalCache companyPrincipalCache, PasswordHasher passwordHasher) {
         this.companyService = companyService;
+        this.ratingService = ratingService;
+        this.carCatalogCache = carCatalogCache;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.outboxService = outboxService;
+        this.invoiceStore = invoiceStore;
+        this.invoiceExporter = invoiceExporter;
+        this.jwtUtil = jwtUtil;
+        this.companyPrincipalCache = companyPrincipalCache;
+        this.passwordHasher = passwordHasher;
     }
 
     @GetMapping("/companies")
@@ -37,4 +73,66 @@ public class AdminController {
         companyService.rejectCompany(id);
         return ResponseEntity.ok().build();
     }
+
+    @GetMapping("/companies/{id}/invoices/export")
+    public ResponseEntity<ResponseBodyEmitter> exportCompanyInvoices(
+            @PathVariable Long id,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        invoiceExporter.validate(id, from, to);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=invoices_" + id + "_" + from + "_" + to + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(invoiceExporter.stream(id, from, to));
+    }
+
+    @PostMapping("/ratings/reconcile")
+    public ResponseEntity<Map<String, Integer>> reconcileRatingStats() {
+        int updated = ratingService.reconcileRatingStats();
+        log.info("Reconciled rating stats for {} cars", updated);
+        return ResponseEntity.ok(Map.of("carsUpdated", updated));
+    }
+
+    @GetMapping("/stats/catalog-cache")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCatalogCacheStats() {
+        return ResponseEntity.ok(carCatalogCache.stats());
+    }
+
+    @GetMapping("/stats/order-intake")
+    public ResponseEntity<Map<String, Long>> getOrderIntakeStats() {
+        return ResponseEntity.ok(orderIntakeQueue.stats());
+    }
+
+    @GetMapping("/stats/outbox")
+    public ResponseEntity<Map<String, Map<String, Object>>> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.stats());
+    }
+
+    @GetMapping("/stats/token-cache")
+    public ResponseEntity<Map<String, Long>> getTokenCacheStats() {
+        return ResponseEntity.ok(jwtUtil.stats());
+    }
+
+    @GetMapping("/stats/company-principal-cache")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCompanyPrincipalCacheStats() {
+        return ResponseEntity.ok(companyPrincipalCache.stats());
+    }
+
+    @GetMapping("/stats/password-hashing")
+    public ResponseEntity<Map<String, Long>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.stats());
+    }
+
+    @GetMapping("/stats/invoice-store")
+    public ResponseEntity<Map<String, Long>> getInvoiceStoreStats() {
+        return ResponseEntity.ok(invoiceStore.stats());
+    }
+
+    @PostMapping("/outbox/{sink}/replay")
+    public ResponseEntity<Void> replayOutbox(@PathVariable String sink, @RequestParam long fromEventId) {
+        outboxService.replayFrom(sink, fromEventId);
+        return ResponseEntity.ok().build();
+    }
 }
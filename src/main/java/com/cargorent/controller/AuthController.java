@@ -2,12 +2,19 @@ package com.cargorent.controller;
 
 import com.cargorent.dto.LoginRequest;
 import com.cargorent.dto.LoginResponse;
+import com.cargorent.dto.RefreshTokenRequest;
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Role;
 import com.cargorent.entity.User;
 import com.cargorent.exception.BadRequestException;
+import com.cargorent.repository.CompanyRepository;
 import com.cargorent.repository.UserRepository;
 import com.cargorent.security.JwtUtil;
+import com.cargorent.security.PasswordHasher;
+import com.cargorent.security.UserPrincipal;
+import com.cargorent.service.RefreshTokenService;
 import jakarta.validation.Valid;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -15,18 +22,21 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
 
-    private final com.cargorent.repository.CompanyRepository companyRepository;
+    private final CompanyRepository companyRepository;
 
     public AuthController(UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordHasher passwordHasher,
             JwtUtil jwtUtil,
-            com.cargorent.repository.CompanyRepository companyRepository) {
+            RefreshTokenService refreshTokenService,
+            CompanyRepository companyRepository) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
         this.companyRepository = companyRepository;
     }
 
@@ -36,49 +46,59 @@ public class AuthController {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadRequestException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
             throw new BadRequestException("Invalid email or password");
         }
 
-        String token = jwtUtil.generateAccessToken(user.getId(), user.getRole().name()); // Re-generate? user context is
-                                                                                         // same.
-        com.cargorent.entity.Company company = getCompanyIfApplicable(user);
-        Long companyId = company != null ? company.getId() : null;
-        boolean isCompanyActive = company != null && company.isActive();
+        return issueTokens(user, refreshTokenService.issue(user.getId()));
+    }
 
-        return new LoginResponse(
-                token,
-                user.getRole().name(),
-                user.getId(),
-                companyId,
-                isCompanyActive);
+    // Rotates the refresh token, so clients can renew access without another BCrypt check
+    @PostMapping("/refresh")
+    public LoginResponse refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
+
+        return issueTokens(user, rotation.refreshToken());
     }
 
     @GetMapping("/me")
     public LoginResponse getCurrentUser() {
-        var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !(auth.getPrincipal() instanceof com.cargorent.security.UserPrincipal)) {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof UserPrincipal)) {
             throw new BadRequestException("User not found");
         }
-        com.cargorent.security.UserPrincipal principal = (com.cargorent.security.UserPrincipal) auth.getPrincipal();
-        Long userId = principal.getUserId();
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BadRequestException("User not found"));
+        UserPrincipal principal = (UserPrincipal) auth.getPrincipal();
 
-        com.cargorent.entity.Company company = getCompanyIfApplicable(user);
+        // Everything here was resolved by the authentication filter
+        return new LoginResponse(
+                null,
+                principal.getRole(),
+                principal.getUserId(),
+                principal.getCompanyId(),
+                principal.isCompanyActive());
+    }
+
+    private LoginResponse issueTokens(User user, String refreshToken) {
+        Company company = getCompanyIfApplicable(user);
         Long companyId = company != null ? company.getId() : null;
         boolean isCompanyActive = company != null && company.isActive();
 
+        String token = jwtUtil.generateAccessToken(user.getId(), user.getRole().name(), companyId, isCompanyActive);
+
         return new LoginResponse(
-                null,
+                token,
+                refreshToken,
                 user.getRole().name(),
                 user.getId(),
                 companyId,
                 isCompanyActive);
     }
 
-    private com.cargorent.entity.Company getCompanyIfApplicable(User user) {
-        if (user.getRole() == com.cargorent.entity.Role.COMPANY) {
+    private Company getCompanyIfApplicable(User user) {
+        if (user.getRole() == Role.COMPANY) {
             return companyRepository.findByUser(user).orElse(null);
         }
         return null;
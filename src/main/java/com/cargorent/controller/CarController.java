@@ -1,6 +1,8 @@
 package com.cargorent.controller;
 
 import com.cargorent.dto.CarResponseDto;
+import com.cargorent.dto.CursorPageResponse;
+import com.cargorent.entity.CarType;
 import com.cargorent.service.CarService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +25,13 @@ public class CarController {
         return carService.getAllCarsForPublicDisplay();
     }
 
+    @GetMapping("/public/page")
+    public CursorPageResponse<CarResponseDto> getCarsPublicPage(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return carService.getCarsForPublicDisplayPage(after, limit);
+    }
+
     @GetMapping("/company/{companyId}")
     public List<CarResponseDto> getCarsByCompany(@PathVariable Long companyId) {
         return carService.getCarsByCompany(companyId);
@@ -33,11 +42,23 @@ public class CarController {
             @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "location", required = false) String location,
-            @RequestParam(value = "carType", required = false) com.cargorent.entity.CarType carType,
+            @RequestParam(value = "carType", required = false) CarType carType,
             @RequestParam(value = "seatingCapacity", required = false) Integer seatingCapacity) {
         return carService.searchCars(startDate, endDate, location, carType, seatingCapacity);
     }
 
+    @GetMapping("/search/page")
+    public CursorPageResponse<CarResponseDto> searchCarsPage(
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "carType", required = false) CarType carType,
+            @RequestParam(value = "seatingCapacity", required = false) Integer seatingCapacity,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return carService.searchCarsPage(startDate, endDate, location, carType, seatingCapacity, after, limit);
+    }
+
     @GetMapping("/{id}")
     public CarResponseDto getCarById(@PathVariable Long id) {
         return carService.getCarById(id);
@@ -2,14 +2,13 @@ package com.cargorent.controller;
 
 import com.cargorent.dto.CarRequestDto;
 import com.cargorent.dto.CarResponseDto;
-import com.cargorent.entity.Company;
 import com.cargorent.exception.ResourceNotFoundException;
-import com.cargorent.repository.CompanyRepository;
 import com.cargorent.security.UserPrincipal;
 import com.cargorent.service.CarService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -18,21 +17,17 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/company")
-@org.springframework.security.access.prepost.PreAuthorize("hasRole('COMPANY')")
+@PreAuthorize("hasRole('COMPANY')")
 public class CompanyDashboardController {
 
     private final CarService carService;
-    private final CompanyRepository companyRepository;
 
-    public CompanyDashboardController(
-            CarService carService,
-            CompanyRepository companyRepository) {
+    public CompanyDashboardController(CarService carService) {
         this.carService = carService;
-        this.companyRepository = companyRepository;
     }
 
-    // ✅ CORRECT WAY: Resolve company using USER ID from JWT
-    private Company getAuthenticatedCompany() {
+    // Company id comes from the JWT via the principal; no per-request lookup
+    private Long getAuthenticatedCompanyId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
@@ -40,27 +35,27 @@ public class CompanyDashboardController {
         }
 
         UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
-        Long userId = principal.getUserId();
-
-        return companyRepository.findByUser_Id(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Company profile not found"));
+        if (principal.getCompanyId() == null) {
+            throw new ResourceNotFoundException("Company profile not found");
+        }
+        return principal.getCompanyId();
     }
 
     // ================= GET MY CARS =================
     @GetMapping("/cars")
     public ResponseEntity<List<CarResponseDto>> getMyCars() {
-        Company company = getAuthenticatedCompany();
-        return ResponseEntity.ok(carService.getCarsByCompany(company.getId()));
+        Long companyId = getAuthenticatedCompanyId();
+        return ResponseEntity.ok(carService.getCarsByCompany(companyId));
     }
 
     // ================= ADD CAR =================
     @PostMapping("/cars")
     public ResponseEntity<CarResponseDto> addCar(
             @Valid @RequestBody CarRequestDto carRequestDto) {
-        Company company = getAuthenticatedCompany();
+        Long companyId = getAuthenticatedCompanyId();
         try {
             // Allow adding cars even if inactive (visibility handled by query)
-            CarResponseDto savedCar = carService.addCar(company.getId(), carRequestDto);
+            CarResponseDto savedCar = carService.addCar(companyId, carRequestDto);
             return new ResponseEntity<>(savedCar, HttpStatus.CREATED);
         } catch (Exception e) {
             e.printStackTrace(); // Log the full stack trace
@@ -74,18 +69,18 @@ public class CompanyDashboardController {
     public ResponseEntity<CarResponseDto> updateCar(
             @PathVariable Long carId,
             @Valid @RequestBody CarRequestDto carRequestDto) {
-        Company company = getAuthenticatedCompany();
+        Long companyId = getAuthenticatedCompanyId();
         // Allow updating cars even if inactive
         return ResponseEntity.ok(
-                carService.updateCar(company.getId(), carId, carRequestDto));
+                carService.updateCar(companyId, carId, carRequestDto));
     }
 
     // ================= DELETE CAR =================
     @DeleteMapping("/cars/{carId}")
     public ResponseEntity<Void> deleteCar(@PathVariable Long carId) {
-        Company company = getAuthenticatedCompany();
+        Long companyId = getAuthenticatedCompanyId();
         // Allow deleting cars even if inactive
-        carService.deleteCar(company.getId(), carId);
+        carService.deleteCar(companyId, carId);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
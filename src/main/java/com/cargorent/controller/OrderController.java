@@ -1,41 +1,142 @@
 package com.cargorent.controller;
 
+import com.cargorent.dto.BulkOrderRequest;
+import com.cargorent.dto.BulkOrderResponse;
+import com.cargorent.dto.BulkStatusUpdateRequest;
+import com.cargorent.dto.BulkStatusUpdateResponse;
+import com.cargorent.dto.CursorPageResponse;
+import com.cargorent.dto.OrderPlacementResponse;
 import com.cargorent.dto.OrderResponseDto;
+import com.cargorent.dto.OrderTicketResponse;
 import com.cargorent.dto.PlaceOrderRequest;
-import com.cargorent.entity.Order;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.DuplicateRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
 import com.cargorent.security.UserPrincipal;
 import com.cargorent.service.OrderService;
+import com.cargorent.service.impl.InvoiceExporter;
+import com.cargorent.service.impl.InvoiceStore;
+import com.cargorent.service.impl.OrderIntakeQueue;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
-    private final com.cargorent.service.InvoiceService invoiceService;
+    private final InvoiceStore invoiceStore;
+    private final InvoiceExporter invoiceExporter;
+    private final OrderIntakeQueue orderIntakeQueue;
 
-    public OrderController(OrderService orderService, com.cargorent.service.InvoiceService invoiceService) {
+    public OrderController(OrderService orderService, InvoiceStore invoiceStore, InvoiceExporter invoiceExporter,
+            OrderIntakeQueue orderIntakeQueue) {
         this.orderService = orderService;
-        this.invoiceService = invoiceService;
+        this.invoiceStore = invoiceStore;
+        this.invoiceExporter = invoiceExporter;
+        this.orderIntakeQueue = orderIntakeQueue;
     }
 
     // ================= PLACE ORDER =================
     @PostMapping
-    public ResponseEntity<Order> placeOrder(@Valid @RequestBody PlaceOrderRequest request) {
+    public ResponseEntity<OrderPlacementResponse> placeOrder(
+            @Valid @RequestBody PlaceOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
                 .getAuthentication()
                 .getPrincipal();
 
-        Order order = orderService.placeOrder(request, principal.getUserId());
+        // A retry of a request that already went through gets the original order back
+        if (idempotencyKey != null) {
+            Optional<OrderPlacementResponse> existing = orderService.findOrderByIdempotencyKey(principal.getUserId(),
+                    idempotencyKey);
+            if (existing.isPresent()) {
+                return ResponseEntity.ok(existing.get());
+            }
+        }
+
+        try {
+            OrderPlacementResponse order = orderService.placeOrder(request, principal.getUserId(),
+                    idempotencyKey);
+            return new ResponseEntity<>(order, HttpStatus.CREATED);
+        } catch (DuplicateRequestException ex) {
+            // Lost the race to a concurrent duplicate that has committed by now
+            return orderService.findOrderByIdempotencyKey(principal.getUserId(), idempotencyKey)
+                    .map(ResponseEntity::ok)
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    // ================= BULK ORDERS =================
+    @PostMapping("/bulk")
+    public BulkOrderResponse placeOrders(
+            @Valid @RequestBody BulkOrderRequest request) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return orderService.placeOrders(request.getOrders(), principal.getUserId());
+    }
+
+    // ================= QUEUED PLACEMENT =================
+    @PostMapping("/async")
+    public ResponseEntity<OrderTicketResponse> placeOrderAsync(
+            @Valid @RequestBody PlaceOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return new ResponseEntity<>(orderIntakeQueue.submit(request, principal.getUserId(), idempotencyKey),
+                HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/async/{ticketId}")
+    public OrderTicketResponse getOrderTicket(@PathVariable String ticketId) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return orderIntakeQueue.getTicket(ticketId, principal.getUserId());
+    }
+
+    // ================= BOOKING HOLDS =================
+    @PostMapping("/hold")
+    public ResponseEntity<OrderPlacementResponse> placeHold(
+            @Valid @RequestBody PlaceOrderRequest request) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        OrderPlacementResponse order = orderService.placeHold(request, principal.getUserId());
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
 
+    @PutMapping("/{orderId}/confirm")
+    public OrderResponseDto confirmHold(@PathVariable Long orderId) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return orderService.confirmHold(orderId, principal.getUserId());
+    }
+
     // ================= GET MY ORDERS (JWT BASED) =================
     @GetMapping("/my")
     public List<OrderResponseDto> getMyOrders() {
@@ -49,6 +150,21 @@ public class OrderController {
         return orderService.getOrdersByCustomer(userId);
     }
 
+    @GetMapping("/my/page")
+    public CursorPageResponse<OrderResponseDto> getMyOrdersPage(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return orderService.getOrdersByCustomerPage(principal.getUserId(), status, createdFrom, createdTo, cursor,
+                limit);
+    }
+
     // ================= GET COMPANY ORDERS (JWT BASED) =================
     @GetMapping("/company")
     public List<OrderResponseDto> getCompanyOrders() {
@@ -56,7 +172,22 @@ public class OrderController {
                 .getAuthentication()
                 .getPrincipal();
 
-        return orderService.getOrdersByCompanyUser(principal.getUserId());
+        return orderService.getOrdersByCompany(requireCompanyId(principal));
+    }
+
+    @GetMapping("/company/page")
+    public CursorPageResponse<OrderResponseDto> getCompanyOrdersPage(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return orderService.getOrdersByCompanyPage(requireCompanyId(principal), status, createdFrom, createdTo,
+                cursor, limit);
     }
 
     // ================= ORDER DETAILS =================
@@ -86,9 +217,23 @@ public class OrderController {
         return orderService.updateOrderStatus(orderId, status);
     }
 
+    // ================= BULK STATUS UPDATE (COMPANY) =================
+    @PutMapping("/company/status")
+    @PreAuthorize("hasRole('COMPANY')")
+    public BulkStatusUpdateResponse updateOrderStatuses(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        return orderService.updateOrderStatusesForCompany(requireCompanyId(principal), request.getOrderIds(),
+                request.getStatus());
+    }
+
     // ================= DOWNLOAD INVOICE =================
     @GetMapping("/{orderId}/invoice")
-    public ResponseEntity<org.springframework.core.io.Resource> downloadInvoice(@PathVariable Long orderId) {
+    public ResponseEntity<Resource> downloadInvoice(@PathVariable Long orderId)
+            throws IOException {
         UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
                 .getAuthentication()
                 .getPrincipal();
@@ -130,18 +275,46 @@ public class OrderController {
             // For Part 5 requirement "Generate Invoice on successful booking", usually
             // Customer needs it.
             // Let's restrict to Customer for MVP.
-            throw new com.cargorent.exception.ResourceNotFoundException("Invoice not found or access denied");
+            throw new ResourceNotFoundException("Invoice not found or access denied");
         }
 
-        java.io.ByteArrayInputStream stream = invoiceService.generateInvoice(order);
-
-        org.springframework.core.io.InputStreamResource resource = new org.springframework.core.io.InputStreamResource(
-                stream);
+        // Served from the invoice store; Spring answers If-None-Match with 304 and Range with 206
+        InvoiceStore.StoredInvoice invoice = invoiceStore.getOrRender(order);
 
         return ResponseEntity.ok()
-                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                .eTag(invoice.hash())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=invoice_" + orderId + ".pdf")
-                .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
-                .body(resource);
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(new FileSystemResource(invoice.path()));
+    }
+
+    // ================= EXPORT INVOICES (COMPANY) =================
+    @GetMapping("/company/invoices/export")
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<ResponseBodyEmitter> exportCompanyInvoices(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+
+        Long companyId = requireCompanyId(principal);
+        invoiceExporter.validate(companyId, from, to);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=invoices_" + from + "_" + to + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(invoiceExporter.stream(companyId, from, to));
+    }
+
+    // The company comes with the principal, so company endpoints need no lookup
+    private static Long requireCompanyId(UserPrincipal principal) {
+        if (principal.getCompanyId() == null) {
+            throw new BadRequestException("User does not have a company profile");
+        }
+        return principal.getCompanyId();
     }
-}
\ No newline at end of file
+}
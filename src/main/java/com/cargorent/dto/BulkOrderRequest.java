@@ -0,0 +1,21 @@
+package com.cargorent.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderRequest {
+
+    @NotEmpty(message = "Bulk request must contain at least one order")
+    @Size(max = 500, message = "Bulk request can contain at most 500 orders")
+    @Valid
+    private List<PlaceOrderRequest> orders;
+}
@@ -0,0 +1,26 @@
+package com.cargorent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BulkOrderResponse {
+
+    private int placed;
+    private int failed;
+    private List<Result> results;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+
+        private int index; // position in the request's orders list
+        private String status; // PLACED or FAILED
+        private Long orderId;
+        private Double totalAmount;
+        private String error;
+    }
+}
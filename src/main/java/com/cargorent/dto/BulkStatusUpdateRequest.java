@@ -0,0 +1,23 @@
+package com.cargorent.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = 1000, message = "At most 1000 orders can be updated at once")
+    private List<Long> orderIds;
+
+    @NotBlank(message = "Status is required")
+    private String status;
+}
@@ -0,0 +1,15 @@
+package com.cargorent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+
+    private String status;
+    private List<Long> updated;
+    private List<Long> skipped; // not found, not this company's, or not allowed to move to status
+}
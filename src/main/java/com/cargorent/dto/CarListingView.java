@@ -0,0 +1,31 @@
+package com.cargorent.dto;
+
+import com.cargorent.entity.CarType;
+import com.cargorent.entity.CompanyType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Read-only projection for car listings, filled by JPQL constructor expressions in CarRepository
+@Getter
+@AllArgsConstructor
+public class CarListingView {
+
+    private Long id;
+    private String model;
+    private String brand;
+    private Double pricePerDay;
+    private Boolean availability;
+    private Boolean isActive;
+    private String imageUrl;
+    private Long companyId;
+    private String companyName;
+    private CompanyType companyType;
+    private String location;
+    private CarType carType;
+    private Integer seatingCapacity;
+    private String description;
+    private Long ownerId;
+    private String ownerName;
+    private Long ratingCount;
+    private Long ratingSum;
+}
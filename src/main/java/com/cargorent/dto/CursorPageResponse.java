@@ -0,0 +1,14 @@
+package com.cargorent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> items;
+    private String nextCursor; // null when there are no more results
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class LoginResponse {
 
     private String token;
+    private String refreshToken;
     private String role;
     private Long userId;
     private Long companyId;
@@ -12,7 +13,13 @@ public class LoginResponse {
     private boolean isCompanyActive;
 
     public LoginResponse(String token, String role, Long userId, Long companyId, boolean isCompanyActive) {
+        this(token, null, role, userId, companyId, isCompanyActive);
+    }
+
+    public LoginResponse(String token, String refreshToken, String role, Long userId, Long companyId,
+            boolean isCompanyActive) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.role = role;
         this.userId = userId;
         this.companyId = companyId;
@@ -23,6 +30,10 @@ public class LoginResponse {
         return token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
     public String getRole() {
         return role;
     }
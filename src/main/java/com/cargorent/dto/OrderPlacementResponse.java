@@ -0,0 +1,36 @@
+package com.cargorent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class OrderPlacementResponse {
+
+    private Long orderId;
+    private String status;
+    private Double totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime holdExpiresAt; // only set for holds
+
+    private Long companyId;
+    private Long ownerId;
+
+    private List<Item> items;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+
+        private Long carId;
+        private String carModel;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private Integer numberOfDays;
+        private Double price;
+    }
+}
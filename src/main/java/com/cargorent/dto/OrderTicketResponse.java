@@ -0,0 +1,17 @@
+package com.cargorent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class OrderTicketResponse {
+
+    private String ticketId;
+    private String status; // QUEUED, PROCESSING, PLACED, FAILED
+    private Long orderId;
+    private String error;
+    private LocalDateTime submittedAt;
+}
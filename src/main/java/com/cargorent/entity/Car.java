@@ -3,6 +3,7 @@ package com.cargorent.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Table(name = "cars")
@@ -11,11 +12,13 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Car {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -58,6 +61,17 @@ public class Car {
 
     @Column(columnDefinition = "TEXT")
     private String description;
-    @org.hibernate.annotations.Formula("(SELECT AVG(r.rating) FROM ratings r WHERE r.car_id = id)")
-    private Double averageRating;
+
+    // Maintained by RatingService; dynamic update keeps car edits from overwriting them
+    @Column(name = "rating_count", nullable = false)
+    @Builder.Default
+    private long ratingCount = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    @Builder.Default
+    private long ratingSum = 0;
+
+    public Double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.cargorent.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+
+// One row per car per booked day; the primary key makes a double booking fail on insert
+@Entity
+@Table(name = "car_booking_days", indexes = {
+        @Index(name = "idx_car_booking_days_order", columnList = "order_id")
+})
+@Getter
+@NoArgsConstructor
+public class CarBookingDay implements Persistable<CarBookingDayId> {
+
+    @EmbeddedId
+    private CarBookingDayId id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Assigned keys would otherwise make save() merge over an existing slot instead of inserting
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    public CarBookingDay(Long carId, LocalDate bookingDay, Long orderId) {
+        this.id = new CarBookingDayId(carId, bookingDay);
+        this.orderId = orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
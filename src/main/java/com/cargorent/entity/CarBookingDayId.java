@@ -0,0 +1,22 @@
+package com.cargorent.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CarBookingDayId implements Serializable {
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(name = "booking_day", nullable = false)
+    private LocalDate bookingDay;
+}
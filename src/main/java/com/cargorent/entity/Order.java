@@ -3,11 +3,19 @@ package com.cargorent.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_hold_expires", columnList = "status, hold_expires_at"),
+        @Index(name = "idx_orders_status_start_date", columnList = "status, start_date"),
+        @Index(name = "idx_orders_status_end_date", columnList = "status, end_date"),
+        @Index(name = "idx_orders_lease_owner", columnList = "lease_owner"),
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at"),
+        @Index(name = "idx_orders_company_created", columnList = "company_id, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +24,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,6 +50,24 @@ public class Order {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Only set while the order is a PENDING hold
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
+    // First start and last end over the items, so the lifecycle job needs no join
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    // Claim held by a lifecycle job batch; expired leases can be claimed by another node
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> orderItems;
 
@@ -3,6 +3,8 @@ package com.cargorent.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
+
 @Entity
 @Table(name = "order_items")
 @Getter
@@ -13,7 +15,8 @@ import lombok.*;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,10 +28,10 @@ public class OrderItem {
     private Car car;
 
     @Column(name = "start_date", nullable = false)
-    private java.time.LocalDate startDate;
+    private LocalDate startDate;
 
     @Column(name = "end_date", nullable = false)
-    private java.time.LocalDate endDate;
+    private LocalDate endDate;
 
     @Column(nullable = false)
     private Integer numberOfDays;
@@ -1,10 +1,39 @@
 package com.cargorent.entity;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     PLACED,
     CONFIRMED,
     ACTIVE,
     COMPLETED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    // Statuses whose order items keep their cars booked; PENDING is a hold until it expires
+    public static final List<OrderStatus> OCCUPYING = List.of(PENDING, PLACED, CONFIRMED, ACTIVE);
+
+    // Allowed lifecycle moves; COMPLETED and CANCELLED are final
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(PLACED, CANCELLED));
+        TRANSITIONS.put(PLACED, EnumSet.of(CONFIRMED, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(ACTIVE, COMPLETED, CANCELLED));
+        TRANSITIONS.put(ACTIVE, EnumSet.of(COMPLETED));
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.getOrDefault(this, Set.of()).contains(next);
+    }
+
+    // Statuses an order may be in for a move to target, used as the WHERE of set-based updates
+    public static List<OrderStatus> sourcesOf(OrderStatus target) {
+        return Arrays.stream(values()).filter(status -> status.canTransitionTo(target)).toList();
+    }
+}
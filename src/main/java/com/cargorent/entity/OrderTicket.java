@@ -0,0 +1,59 @@
+package com.cargorent.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A queued order placement. Kept in the database so any node can process or report it,
+// and its outcome commits in the same transaction as the order it placed
+@Entity
+@Table(name = "order_tickets", indexes = {
+        @Index(name = "idx_order_tickets_status", columnList = "status, submitted_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderTicket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String request; // PlaceOrderRequest as JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderTicketStatus status;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(length = 500)
+    private String error;
+
+    // Set while a node is placing the ticket; once it runs out another node may take over
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "submitted_at", nullable = false, updatable = false)
+    private LocalDateTime submittedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.submittedAt = LocalDateTime.now();
+    }
+}
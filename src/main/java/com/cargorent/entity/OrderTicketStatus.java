@@ -0,0 +1,8 @@
+package com.cargorent.entity;
+
+public enum OrderTicketStatus {
+    QUEUED,
+    PROCESSING,
+    PLACED,
+    FAILED
+}
@@ -0,0 +1,32 @@
+package com.cargorent.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// An event id a sink's relay skipped because it was not visible yet, re-polled until it shows up or times out
+@Entity
+@Table(name = "outbox_gaps", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "sink", "event_id" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxGap {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String sink;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "first_seen_at", nullable = false)
+    private LocalDateTime firstSeenAt;
+}
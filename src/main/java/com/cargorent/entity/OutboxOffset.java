@@ -0,0 +1,27 @@
+package com.cargorent.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_offsets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxOffset {
+
+    // sink@node-id; each node relays to its own copy of every sink
+    @Id
+    @Column(length = 50)
+    private String sink;
+
+    // Id of the last event the sink has accepted
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.cargorent.exception;
+
+public class DuplicateRequestException extends RuntimeException {
+
+    public DuplicateRequestException(String message) {
+        super(message);
+    }
+}
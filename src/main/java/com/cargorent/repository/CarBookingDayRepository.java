@@ -0,0 +1,16 @@
+package com.cargorent.repository;
+
+import com.cargorent.entity.CarBookingDay;
+import com.cargorent.entity.CarBookingDayId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+
+public interface CarBookingDayRepository extends JpaRepository<CarBookingDay, CarBookingDayId> {
+
+    @Modifying
+    @Query("DELETE FROM CarBookingDay d WHERE d.orderId IN :orderIds")
+    int deleteByOrderIdIn(Collection<Long> orderIds);
+}
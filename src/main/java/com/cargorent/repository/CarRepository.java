@@ -1,67 +1,156 @@
 package com.cargorent.repository;
 
+import com.cargorent.dto.CarListingView;
 import com.cargorent.entity.Car;
+import com.cargorent.entity.CarType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CarRepository extends JpaRepository<Car, Long> {
 
-    @Query("SELECT c FROM Car c WHERE c.company.id = :companyId AND c.isActive = true")
-    List<Car> findCarsWithCompany(@Param("companyId") Long companyId);
-
-    List<Car> findByOwner_IdAndIsActiveTrue(Long ownerId);
-
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT c FROM Car c WHERE c.id = :id")
-    java.util.Optional<Car> findByIdWithLock(@Param("id") Long id);
+    @Query("SELECT c FROM Car c WHERE c.id IN :ids ORDER BY c.id")
+    List<Car> findAllByIdInWithLock(Collection<Long> ids);
+
+    // Listing queries project straight into CarListingView so no Car, Company or User
+    // entities (or the owner's password hash) are hydrated for read-only pages.
 
     @Query("""
-                SELECT CASE WHEN COUNT(oi) > 0 THEN true ELSE false END
-                FROM OrderItem oi
-                JOIN oi.order o
-                WHERE oi.car.id = :carId
-                AND o.status IN ('PLACED', 'CONFIRMED', 'ACTIVE')
-                AND (
-                    (oi.startDate <= :endDate AND oi.endDate >= :startDate)
+                SELECT new com.cargorent.dto.CarListingView(
+                    c.id, c.model, c.brand, c.pricePerDay, c.availability, c.isActive, c.imageUrl,
+                    co.id, co.companyName, co.companyType, c.location, c.carType, c.seatingCapacity,
+                    c.description, ow.id, ow.name, c.ratingCount, c.ratingSum)
+                FROM Car c
+                LEFT JOIN c.company co
+                LEFT JOIN c.owner ow
+                WHERE c.isActive = true
+                AND (co IS NULL OR co.isActive = true)
+                AND (:location IS NULL OR LOWER(c.location) LIKE LOWER(CONCAT('%', :location, '%')))
+                AND (:carType IS NULL OR c.carType = :carType)
+                AND (:seatingCapacity IS NULL OR c.seatingCapacity >= :seatingCapacity)
+                AND NOT EXISTS (
+                    SELECT d FROM CarBookingDay d
+                    WHERE d.id.carId = c.id
+                    AND d.id.bookingDay BETWEEN :startDate AND :endDate
                 )
+                AND (:after IS NULL OR c.id < :after)
+                ORDER BY c.id DESC
             """)
-    boolean existsOverlappingBookings(Long carId, java.time.LocalDate startDate, java.time.LocalDate endDate);
+    List<CarListingView> findAvailableCars(
+            LocalDate startDate,
+            LocalDate endDate,
+            String location,
+            CarType carType,
+            Integer seatingCapacity,
+            Long after,
+            Pageable pageable);
 
     @Query("""
-                SELECT c FROM Car c
-                LEFT JOIN FETCH c.company co
-                LEFT JOIN FETCH c.owner ow
+                SELECT new com.cargorent.dto.CarListingView(
+                    c.id, c.model, c.brand, c.pricePerDay, c.availability, c.isActive, c.imageUrl,
+                    co.id, co.companyName, co.companyType, c.location, c.carType, c.seatingCapacity,
+                    c.description, ow.id, ow.name, c.ratingCount, c.ratingSum)
+                FROM Car c
+                LEFT JOIN c.company co
+                LEFT JOIN c.owner ow
                 WHERE c.isActive = true
                 AND (co IS NULL OR co.isActive = true)
                 AND (:location IS NULL OR LOWER(c.location) LIKE LOWER(CONCAT('%', :location, '%')))
                 AND (:carType IS NULL OR c.carType = :carType)
                 AND (:seatingCapacity IS NULL OR c.seatingCapacity >= :seatingCapacity)
-                AND c NOT IN (
-                    SELECT oi.car FROM OrderItem oi
-                    JOIN oi.order o
-                    WHERE o.status IN ('PLACED', 'CONFIRMED', 'ACTIVE')
-                    AND (oi.startDate <= :endDate AND oi.endDate >= :startDate)
-                )
+                AND (:after IS NULL OR c.id < :after)
+                ORDER BY c.id DESC
             """)
-    List<Car> findAvailableCars(
-            java.time.LocalDate startDate,
-            java.time.LocalDate endDate,
+    List<CarListingView> findSearchCandidates(
             String location,
-            com.cargorent.entity.CarType carType,
-            Integer seatingCapacity);
+            CarType carType,
+            Integer seatingCapacity,
+            Long after,
+            Pageable pageable);
+
+    @Query("""
+                SELECT new com.cargorent.dto.CarListingView(
+                    c.id, c.model, c.brand, c.pricePerDay, c.availability, c.isActive, c.imageUrl,
+                    co.id, co.companyName, co.companyType, c.location, c.carType, c.seatingCapacity,
+                    c.description, ow.id, ow.name, c.ratingCount, c.ratingSum)
+                FROM Car c
+                LEFT JOIN c.company co
+                LEFT JOIN c.owner ow
+                WHERE c.isActive = true
+                AND (co IS NULL OR co.isActive = true)
+                AND (:after IS NULL OR c.id < :after)
+                ORDER BY c.id DESC
+            """)
+    List<CarListingView> findActiveForPublicDisplay(Long after, Pageable pageable);
+
+    @Query("""
+                SELECT new com.cargorent.dto.CarListingView(
+                    c.id, c.model, c.brand, c.pricePerDay, c.availability, c.isActive, c.imageUrl,
+                    co.id, co.companyName, co.companyType, c.location, c.carType, c.seatingCapacity,
+                    c.description, ow.id, ow.name, c.ratingCount, c.ratingSum)
+                FROM Car c
+                LEFT JOIN c.company co
+                LEFT JOIN c.owner ow
+                WHERE co.id = :companyId
+                AND c.isActive = true
+            """)
+    List<CarListingView> findCompanyListings(Long companyId);
+
+    @Query("""
+                SELECT new com.cargorent.dto.CarListingView(
+                    c.id, c.model, c.brand, c.pricePerDay, c.availability, c.isActive, c.imageUrl,
+                    co.id, co.companyName, co.companyType, c.location, c.carType, c.seatingCapacity,
+                    c.description, ow.id, ow.name, c.ratingCount, c.ratingSum)
+                FROM Car c
+                LEFT JOIN c.company co
+                LEFT JOIN c.owner ow
+                WHERE ow.id = :ownerId
+                AND c.isActive = true
+            """)
+    List<CarListingView> findOwnerListings(Long ownerId);
+
+    @Query("""
+                SELECT new com.cargorent.dto.CarListingView(
+                    c.id, c.model, c.brand, c.pricePerDay, c.availability, c.isActive, c.imageUrl,
+                    co.id, co.companyName, co.companyType, c.location, c.carType, c.seatingCapacity,
+                    c.description, ow.id, ow.name, c.ratingCount, c.ratingSum)
+                FROM Car c
+                LEFT JOIN c.company co
+                LEFT JOIN c.owner ow
+                WHERE c.id = :carId
+            """)
+    Optional<CarListingView> findListingById(Long carId);
+
+    @Modifying
+    @Query("UPDATE Car c SET c.availability = true WHERE c.id IN :carIds AND c.availability = false")
+    int markAvailable(Collection<Long> carIds);
+
+    @Modifying
+    @Query("UPDATE Car c SET c.ratingCount = c.ratingCount + 1, c.ratingSum = c.ratingSum + :rating WHERE c.id = :carId")
+    int incrementRatingStats(Long carId, int rating);
+
+    @Query("""
+            SELECT c.id FROM Car c
+            WHERE c.ratingCount <> (SELECT COUNT(r) FROM Rating r WHERE r.car = c)
+            OR c.ratingSum <> (SELECT COALESCE(SUM(r.rating), 0) FROM Rating r WHERE r.car = c)
+            """)
+    List<Long> findIdsWithStaleRatingStats();
 
+    @Modifying
     @Query("""
-            SELECT DISTINCT c FROM Car c
-            LEFT JOIN FETCH c.company co
-            LEFT JOIN FETCH c.owner ow
-            WHERE c.isActive = true
-            AND (co IS NULL OR co.isActive = true)
-            ORDER BY c.id DESC
+            UPDATE Car c
+            SET c.ratingCount = (SELECT COUNT(r) FROM Rating r WHERE r.car = c),
+                c.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Rating r WHERE r.car = c)
+            WHERE c.id IN :carIds
             """)
-    List<Car> findAllActiveForPublicDisplay();
+    int reconcileRatingStats(Collection<Long> carIds);
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.cargorent.repository;
 
 import com.cargorent.entity.Company;
+import com.cargorent.entity.CompanyType;
 import com.cargorent.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,5 +18,11 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
 
     List<Company> findByIsActiveTrue();
 
-    java.util.Optional<Company> findByCompanyType(com.cargorent.entity.CompanyType companyType);
+    Optional<Company> findByCompanyType(CompanyType companyType);
+
+    @Query("SELECT c.isActive FROM Company c WHERE c.id = :companyId")
+    Optional<Boolean> findActiveById(Long companyId);
+
+    @Query("SELECT c.id FROM Company c WHERE c.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
 }
\ No newline at end of file
@@ -1,7 +1,49 @@
 package com.cargorent.repository;
 
 import com.cargorent.entity.OrderItem;
+import com.cargorent.entity.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+
+    // Rows of [orderId, carId, startDate, endDate]
+    @Query("""
+            SELECT oi.order.id, oi.car.id, oi.startDate, oi.endDate
+            FROM OrderItem oi
+            WHERE oi.order.status IN :statuses
+            AND oi.endDate >= :from
+            """)
+    List<Object[]> findBookingsEndingOnOrAfter(Collection<OrderStatus> statuses, LocalDate from);
+
+    // Rows of [orderId, carId, startDate, endDate]; none once the order stops holding its cars
+    @Query("""
+            SELECT oi.order.id, oi.car.id, oi.startDate, oi.endDate
+            FROM OrderItem oi
+            WHERE oi.order.id = :orderId
+            AND oi.order.status IN :statuses
+            """)
+    List<Object[]> findBookingsByOrderId(Long orderId, Collection<OrderStatus> statuses);
+
+    // Rows of [carId, startDate, endDate] for bookings of the given cars touching [from, to]
+    @Query("""
+            SELECT oi.car.id, oi.startDate, oi.endDate
+            FROM OrderItem oi
+            WHERE oi.car.id IN :carIds
+            AND oi.order.status IN :statuses
+            AND oi.startDate <= :to
+            AND oi.endDate >= :from
+            """)
+    List<Object[]> findBookingsOverlapping(Collection<Long> carIds, Collection<OrderStatus> statuses,
+            LocalDate from, LocalDate to);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.car WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findWithCarByOrderIds(Collection<Long> orderIds);
+
+    @Query("SELECT DISTINCT oi.car.id FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<Long> findCarIdsByOrderIds(Collection<Long> orderIds);
+}
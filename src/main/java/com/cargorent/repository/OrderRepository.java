@@ -1,9 +1,18 @@
 package com.cargorent.repository;
 
 import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -28,13 +37,117 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     """)
     List<Order> findOrdersByCompany(Long companyId);
 
+    // Company and owner are optional, so owner-based orders need the outer joins
     @Query("""
         select distinct o from Order o
-        join fetch o.orderItems oi
-        join fetch oi.car
+        left join fetch o.orderItems oi
+        left join fetch oi.car
         join fetch o.customer
-        join fetch o.company
+        left join fetch o.company
+        left join fetch o.owner
         where o.id = :orderId
     """)
     Optional<Order> findOrderWithDetails(Long orderId);
-}
\ No newline at end of file
+
+    // Keyset pages over (createdAt, id) descending; no fetch joins, the ids come from the FKs
+    @Query("""
+        select o from Order o
+        where o.customer.id = :customerId
+        and (:status is null or o.status = :status)
+        and (:createdFrom is null or o.createdAt >= :createdFrom)
+        and (:createdTo is null or o.createdAt < :createdTo)
+        and (:afterCreatedAt is null or o.createdAt < :afterCreatedAt
+             or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+        order by o.createdAt desc, o.id desc
+    """)
+    List<Order> findCustomerOrdersPage(Long customerId, OrderStatus status,
+            LocalDateTime createdFrom, LocalDateTime createdTo, LocalDateTime afterCreatedAt, Long afterId,
+            Pageable pageable);
+
+    @Query("""
+        select o from Order o
+        where o.company.id = :companyId
+        and (:status is null or o.status = :status)
+        and (:createdFrom is null or o.createdAt >= :createdFrom)
+        and (:createdTo is null or o.createdAt < :createdTo)
+        and (:afterCreatedAt is null or o.createdAt < :afterCreatedAt
+             or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+        order by o.createdAt desc, o.id desc
+    """)
+    List<Order> findCompanyOrdersPage(Long companyId, OrderStatus status,
+            LocalDateTime createdFrom, LocalDateTime createdTo, LocalDateTime afterCreatedAt, Long afterId,
+            Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId")
+    Optional<Order> findByIdWithLock(Long orderId);
+
+    // Rows another sweeper (or a confirming customer) holds are skipped, not waited on
+    @Query(value = """
+        SELECT id FROM orders
+        WHERE status = 'PENDING' AND hold_expires_at < :now
+        ORDER BY hold_expires_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<Long> claimExpiredHolds(LocalDateTime now, int limit);
+
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = com.cargorent.entity.OrderStatus.CANCELLED, o.holdExpiresAt = null
+        WHERE o.id IN :orderIds
+    """)
+    int cancelHolds(Collection<Long> orderIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT o FROM Order o
+        WHERE o.id IN :orderIds AND o.company.id = :companyId AND o.status IN :fromStatuses
+        ORDER BY o.id
+    """)
+    List<Order> findForTransitionWithLock(Collection<Long> orderIds, Long companyId,
+            Collection<OrderStatus> fromStatuses);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :orderIds")
+    int updateStatus(Collection<Long> orderIds, OrderStatus status);
+
+    // ================= LIFECYCLE CLAIMS =================
+    @Modifying
+    @Query(value = """
+        UPDATE orders SET lease_owner = :leaseOwner, lease_until = :leaseUntil
+        WHERE status = 'CONFIRMED' AND start_date <= :today
+        AND (lease_until IS NULL OR lease_until < :now)
+        ORDER BY start_date
+        LIMIT :limit
+    """, nativeQuery = true)
+    int claimStarted(String leaseOwner, LocalDateTime leaseUntil, LocalDate today, LocalDateTime now,
+            int limit);
+
+    @Modifying
+    @Query(value = """
+        UPDATE orders SET lease_owner = :leaseOwner, lease_until = :leaseUntil
+        WHERE status = 'ACTIVE' AND end_date < :today
+        AND (lease_until IS NULL OR lease_until < :now)
+        ORDER BY end_date
+        LIMIT :limit
+    """, nativeQuery = true)
+    int claimEnded(String leaseOwner, LocalDateTime leaseUntil, LocalDate today, LocalDateTime now,
+            int limit);
+
+    @Query("SELECT o.id FROM Order o WHERE o.leaseOwner = :leaseOwner AND o.status = :status")
+    List<Long> findClaimedIds(String leaseOwner, OrderStatus status);
+
+    // Moves the changed rows to a new lease owner so exactly those can be read back
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = :to, o.leaseOwner = :advancedBy
+        WHERE o.leaseOwner = :leaseOwner AND o.status = :from
+    """)
+    int advanceClaimed(String leaseOwner, String advancedBy, OrderStatus from,
+            OrderStatus to);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.leaseOwner = null, o.leaseUntil = null WHERE o.leaseOwner = :leaseOwner")
+    int releaseClaim(String leaseOwner);
+}
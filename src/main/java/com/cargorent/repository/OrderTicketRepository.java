@@ -0,0 +1,47 @@
+package com.cargorent.repository;
+
+import com.cargorent.entity.OrderTicket;
+import com.cargorent.entity.OrderTicketStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderTicketRepository extends JpaRepository<OrderTicket, String> {
+
+    Optional<OrderTicket> findByIdAndCustomerId(String id, Long customerId);
+
+    long countByStatus(OrderTicketStatus status);
+
+    List<OrderTicket> findByLeaseOwnerAndStatusOrderBySubmittedAt(String leaseOwner, OrderTicketStatus status);
+
+    // Queued tickets, plus ones whose node stopped before finishing them
+    @Modifying
+    @Query(value = """
+        UPDATE order_tickets SET status = 'PROCESSING', lease_owner = :leaseOwner, lease_until = :leaseUntil
+        WHERE status = 'QUEUED' OR (status = 'PROCESSING' AND lease_until < :now)
+        ORDER BY submitted_at
+        LIMIT :limit
+    """, nativeQuery = true)
+    int claim(String leaseOwner, LocalDateTime leaseUntil, LocalDateTime now, int limit);
+
+    // Matches nothing once another node has taken the lease over
+    @Modifying
+    @Query("""
+        UPDATE OrderTicket t SET t.status = :status, t.orderId = :orderId, t.error = :error,
+            t.leaseOwner = null, t.leaseUntil = null
+        WHERE t.id = :id AND t.leaseOwner = :leaseOwner
+    """)
+    int finish(String id, String leaseOwner, OrderTicketStatus status, Long orderId, String error);
+
+    @Modifying
+    @Query("""
+        DELETE FROM OrderTicket t
+        WHERE t.status IN (com.cargorent.entity.OrderTicketStatus.PLACED, com.cargorent.entity.OrderTicketStatus.FAILED)
+        AND t.submittedAt < :cutoff
+    """)
+    int deleteFinishedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,39 @@
+package com.cargorent.repository;
+
+import com.cargorent.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :afterId ORDER BY e.id")
+    List<OutboxEvent> findBatchAfter(Long afterId, Pageable pageable);
+
+    // Events that have since appeared for the ids a sink tracks as gaps
+    @Query("""
+            SELECT e FROM OutboxEvent e
+            WHERE e.id IN (SELECT g.eventId FROM OutboxGap g WHERE g.sink = :sink)
+            ORDER BY e.id
+            """)
+    List<OutboxEvent> findFilledGaps(String sink, Pageable pageable);
+
+    long countByIdGreaterThan(Long id);
+
+    Optional<OutboxEvent> findFirstByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e")
+    Long findLatestId();
+
+    @Query("SELECT MIN(e.id) FROM OutboxEvent e")
+    Long findOldestId();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :upToId AND e.createdAt < :cutoff")
+    int deleteDelivered(Long upToId, LocalDateTime cutoff);
+}
@@ -0,0 +1,25 @@
+package com.cargorent.repository;
+
+import com.cargorent.entity.OutboxGap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxGapRepository extends JpaRepository<OutboxGap, Long> {
+
+    List<OutboxGap> findBySinkAndFirstSeenAtBefore(String sink, LocalDateTime cutoff);
+
+    long countBySink(String sink);
+
+    @Modifying
+    @Query("DELETE FROM OutboxGap g WHERE g.sink = :sink AND g.eventId >= :fromEventId")
+    int deleteFrom(String sink, Long fromEventId);
+
+    @Modifying
+    @Query("DELETE FROM OutboxGap g WHERE g.sink = :sink AND g.eventId IN :eventIds")
+    int deleteFilled(String sink, Collection<Long> eventIds);
+}
@@ -0,0 +1,20 @@
+package com.cargorent.repository;
+
+import com.cargorent.entity.OutboxOffset;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+
+    // Serialises relays and replays of one sink on one node
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxOffset o WHERE o.sink = :sink")
+    Optional<OutboxOffset> findBySinkWithLock(String sink);
+
+    List<OutboxOffset> findBySinkStartingWith(String prefix);
+}
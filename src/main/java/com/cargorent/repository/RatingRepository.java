@@ -2,9 +2,12 @@ package com.cargorent.repository;
 
 import com.cargorent.entity.Rating;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface RatingRepository extends JpaRepository<Rating, Long> {
     List<Rating> findByCarId(Long carId);
@@ -14,4 +17,11 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     boolean existsByOrderId(Long orderId);
 
     boolean existsByOrderIdAndCarId(Long orderId, Long carId);
+
+    @Query("SELECT r.car.id FROM Rating r WHERE r.order.id = :orderId")
+    Set<Long> findRatedCarIdsByOrderId(Long orderId);
+
+    // Rows of [orderId, carId]
+    @Query("SELECT r.order.id, r.car.id FROM Rating r WHERE r.order.id IN :orderIds")
+    List<Object[]> findRatedCarIdsByOrderIds(Collection<Long> orderIds);
 }
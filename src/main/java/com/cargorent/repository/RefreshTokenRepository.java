@@ -0,0 +1,28 @@
+package com.cargorent.repository;
+
+import com.cargorent.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenId(String tokenId);
+
+    // Only one of two concurrent refreshes with the same token can win this update
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now "
+            + "WHERE t.tokenId = :tokenId AND t.revokedAt IS NULL AND t.expiresAt > :now")
+    int revokeIfActive(String tokenId, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.userId = :userId AND t.revokedAt IS NULL")
+    int revokeAllForUser(Long userId, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(LocalDateTime cutoff);
+}
@@ -1,6 +1,6 @@
 package com.cargorent.security;
 
-import io.jsonwebtoken.Claims;
+import com.cargorent.service.impl.CompanyPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,9 +17,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final CompanyPrincipalCache companyPrincipalCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, CompanyPrincipalCache companyPrincipalCache) {
         this.jwtUtil = jwtUtil;
+        this.companyPrincipalCache = companyPrincipalCache;
     }
 
     @Override
@@ -35,13 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = header.substring(7);
 
             try {
-                Claims claims = jwtUtil.extractClaims(token);
-
-                Long userId = Long.parseLong(claims.getSubject());
-                String role = claims.get("role", String.class);
-
-                UserPrincipal principal = new UserPrincipal(userId, role);
-                System.out.println("JWT Auth - UserId: " + userId + ", Role: " + role);
+                UserPrincipal principal = companyPrincipalCache.enrich(jwtUtil.authenticate(token));
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         principal,
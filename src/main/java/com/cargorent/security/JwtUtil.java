@@ -1,58 +1,124 @@
 package com.cargorent.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 public class JwtUtil {
 
-        @Value("${jwt.secret}")
-        private String secret;
+        private final SecretKey signingKey;
+        private final JwtParser parser;
+        private final long accessTokenExpiry;
+        private final long refreshTokenExpiry;
 
-        @Value("${jwt.access-token-expiry-ms}")
-        private Long accessTokenExpiry;
+        // Verified tokens by SHA-256, each kept until its own expiry
+        private final Cache<String, VerifiedToken> verifiedTokens;
 
-        @Value("${jwt.refresh-token-expiry-ms}")
-        private Long refreshTokenExpiry;
-
-        private SecretKey getSigningKey() {
-                return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        public JwtUtil(
+                        @Value("${jwt.secret}") String secret,
+                        @Value("${jwt.access-token-expiry-ms}") long accessTokenExpiry,
+                        @Value("${jwt.refresh-token-expiry-ms}") long refreshTokenExpiry,
+                        @Value("${jwt.token-cache-size:10000}") long tokenCacheSize) {
+                // Key and parser are immutable and thread-safe, so both are built once
+                this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+                this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+                this.accessTokenExpiry = accessTokenExpiry;
+                this.refreshTokenExpiry = refreshTokenExpiry;
+                this.verifiedTokens = Caffeine.newBuilder()
+                                .maximumSize(tokenCacheSize)
+                                .expireAfter(new UntilTokenExpiry())
+                                .recordStats()
+                                .build();
         }
 
         public String generateAccessToken(Long userId, String role) {
-                return Jwts.builder()
+                return generateAccessToken(userId, role, null, false);
+        }
+
+        // Company users also carry their company, so requests need no company lookup
+        public String generateAccessToken(Long userId, String role, Long companyId, boolean companyActive) {
+                var builder = Jwts.builder()
                                 .setSubject(String.valueOf(userId))
                                 .claim("role", role)
-                                .claim("type", "ACCESS")
+                                .claim("type", "ACCESS");
+                if (companyId != null) {
+                        builder.claim("companyId", companyId)
+                                        .claim("companyActive", companyActive);
+                }
+                return builder
                                 .setIssuedAt(new Date())
                                 .setExpiration(new Date(System.currentTimeMillis() + accessTokenExpiry))
-                                .signWith(getSigningKey())
+                                .signWith(signingKey)
                                 .compact();
         }
 
-        public String generateRefreshToken(Long userId) {
+        // The id ties the token to its row in refresh_tokens, which makes it single use
+        public String generateRefreshToken(Long userId, String tokenId) {
                 return Jwts.builder()
+                                .setId(tokenId)
                                 .setSubject(String.valueOf(userId))
                                 .claim("type", "REFRESH")
                                 .setIssuedAt(new Date())
                                 .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiry))
-                                .signWith(getSigningKey())
+                                .signWith(signingKey)
                                 .compact();
         }
 
         public Claims extractClaims(String token) {
-                return Jwts.parserBuilder()
-                                .setSigningKey(getSigningKey())
-                                .build()
-                                .parseClaimsJws(token)
-                                .getBody();
+                return parser.parseClaimsJws(token).getBody();
+        }
+
+        public Claims parseRefreshToken(String token) {
+                Claims claims = extractClaims(token);
+                if (!"REFRESH".equals(claims.get("type", String.class))) {
+                        throw new MalformedJwtException("Not a refresh token");
+                }
+                return claims;
+        }
+
+        public long getRefreshTokenExpiry() {
+                return refreshTokenExpiry;
+        }
+
+        // Repeat requests with the same token skip signature checking and claim parsing
+        public UserPrincipal authenticate(String token) {
+                String key = hash(token);
+                VerifiedToken cached = verifiedTokens.getIfPresent(key);
+                if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+                        return cached.principal();
+                }
+
+                Claims claims = extractClaims(token);
+                // Refresh tokens are only good for /api/auth/refresh
+                if (!"ACCESS".equals(claims.get("type", String.class))) {
+                        throw new MalformedJwtException("Not an access token");
+                }
+                UserPrincipal principal = new UserPrincipal(Long.parseLong(claims.getSubject()),
+                                claims.get("role", String.class),
+                                claims.get("companyId", Long.class),
+                                Boolean.TRUE.equals(claims.get("companyActive", Boolean.class)));
+                if (claims.getExpiration() != null) {
+                        verifiedTokens.put(key, new VerifiedToken(principal, claims.getExpiration().getTime()));
+                }
+                return principal;
         }
 
         public boolean isTokenExpired(String token) {
@@ -62,4 +128,49 @@ public class JwtUtil {
                         return true;
                 }
         }
-}
\ No newline at end of file
+
+        public Map<String, Long> stats() {
+                CacheStats stats = verifiedTokens.stats();
+                Map<String, Long> values = new LinkedHashMap<>();
+                values.put("size", verifiedTokens.estimatedSize());
+                values.put("hits", stats.hitCount());
+                values.put("misses", stats.missCount());
+                values.put("evictions", stats.evictionCount());
+                return values;
+        }
+
+        // Raw tokens are never kept in memory
+        private static String hash(String token) {
+                try {
+                        byte[] digest = MessageDigest.getInstance("SHA-256")
+                                        .digest(token.getBytes(StandardCharsets.UTF_8));
+                        return Base64.getEncoder().encodeToString(digest);
+                } catch (NoSuchAlgorithmException e) {
+                        throw new IllegalStateException(e);
+                }
+        }
+
+        private record VerifiedToken(UserPrincipal principal, long expiresAtMillis) {
+        }
+
+        private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+                @Override
+                public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+                        return Math.max(0, remainingMillis) * 1_000_000L;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                long currentDuration) {
+                        return currentDuration;
+                }
+        }
+}
@@ -0,0 +1,109 @@
+package com.cargorent.security;
+
+import com.cargorent.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt on a small dedicated pool. Only a few hashes run at once, so a burst
+ * of logins leaves the other cores to the rest of the API; once the queue is full,
+ * further logins get a 503 instead of piling up on request threads.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor workers;
+    private final long waitTimeoutMs;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+            @Value("${cargorent.password-hashing.workers:0}") int workerCount,
+            @Value("${cargorent.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${cargorent.password-hashing.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.waitTimeoutMs = waitTimeoutMs;
+
+        // 0 means half the cores
+        int threads = workerCount > 0 ? workerCount : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = workers.submit(task);
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Authentication is busy, please retry shortly");
+        }
+
+        try {
+            T result = future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            completed.incrementAndGet();
+            return result;
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new ServiceUnavailableException("Authentication is busy, please retry shortly");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Authentication was interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", (long) workers.getQueue().size());
+        stats.put("activeWorkers", (long) workers.getActiveCount());
+        stats.put("completed", completed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
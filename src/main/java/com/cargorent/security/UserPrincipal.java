@@ -11,19 +11,47 @@ public class UserPrincipal implements UserDetails {
 
     private final Long userId;
     private final String role;
+    private final List<GrantedAuthority> authorities;
+
+    // Company users only; the active flag is refreshed per request, see CompanyPrincipalCache
+    private final Long companyId;
+    private final boolean companyActive;
 
     public UserPrincipal(Long userId, String role) {
+        this(userId, role, null, false);
+    }
+
+    public UserPrincipal(Long userId, String role, Long companyId, boolean companyActive) {
         this.userId = userId;
         this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        this.companyId = companyId;
+        this.companyActive = companyActive;
+    }
+
+    public UserPrincipal withCompany(Long companyId, boolean companyActive) {
+        return new UserPrincipal(userId, role, companyId, companyActive);
     }
 
     public Long getUserId() {
         return userId;
     }
 
+    public String getRole() {
+        return role;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public boolean isCompanyActive() {
+        return companyActive;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        return authorities;
     }
 
     @Override
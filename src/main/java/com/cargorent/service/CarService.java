@@ -1,7 +1,11 @@
 package com.cargorent.service;
 
+import com.cargorent.dto.CarRequestDto;
 import com.cargorent.dto.CarResponseDto;
+import com.cargorent.dto.CursorPageResponse;
+import com.cargorent.entity.CarType;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface CarService {
@@ -10,24 +14,35 @@ public interface CarService {
 
     List<CarResponseDto> getCarsByOwner(Long userId);
 
-    CarResponseDto addCar(Long companyId, com.cargorent.dto.CarRequestDto carRequestDto);
+    CarResponseDto addCar(Long companyId, CarRequestDto carRequestDto);
 
-    CarResponseDto addCarForMember(Long userId, com.cargorent.dto.CarRequestDto carRequestDto);
+    CarResponseDto addCarForMember(Long userId, CarRequestDto carRequestDto);
 
-    CarResponseDto updateCar(Long companyId, Long carId, com.cargorent.dto.CarRequestDto carRequestDto);
+    CarResponseDto updateCar(Long companyId, Long carId, CarRequestDto carRequestDto);
 
     void deleteCar(Long companyId, Long carId);
 
     List<CarResponseDto> searchCars(
-            java.time.LocalDate startDate,
-            java.time.LocalDate endDate,
+            LocalDate startDate,
+            LocalDate endDate,
             String location,
-            com.cargorent.entity.CarType carType,
+            CarType carType,
             Integer seatingCapacity);
 
+    CursorPageResponse<CarResponseDto> searchCarsPage(
+            LocalDate startDate,
+            LocalDate endDate,
+            String location,
+            CarType carType,
+            Integer seatingCapacity,
+            Long after,
+            int limit);
+
     void deleteCarForMember(Long userId, Long carId);
 
     CarResponseDto getCarById(Long carId);
 
     List<CarResponseDto> getAllCarsForPublicDisplay();
+
+    CursorPageResponse<CarResponseDto> getCarsForPublicDisplayPage(Long after, int limit);
 }
\ No newline at end of file
@@ -3,7 +3,12 @@ package com.cargorent.service;
 import com.cargorent.dto.OrderResponseDto;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface InvoiceService {
     ByteArrayInputStream generateInvoice(OrderResponseDto order);
+
+    // Writes the PDF as it is laid out; the stream is left open
+    void writeInvoice(OrderResponseDto order, OutputStream out) throws IOException;
 }
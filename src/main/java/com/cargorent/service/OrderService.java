@@ -1,14 +1,37 @@
 package com.cargorent.service;
 
+import com.cargorent.dto.BulkOrderResponse;
+import com.cargorent.dto.BulkStatusUpdateResponse;
+import com.cargorent.dto.CursorPageResponse;
+import com.cargorent.dto.OrderPlacementResponse;
 import com.cargorent.dto.OrderResponseDto;
 import com.cargorent.dto.PlaceOrderRequest;
-import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderStatus;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderService {
 
-    Order placeOrder(PlaceOrderRequest request, Long customerId);
+    OrderPlacementResponse placeOrder(PlaceOrderRequest request, Long customerId, String idempotencyKey);
+
+    Optional<OrderPlacementResponse> findOrderByIdempotencyKey(Long customerId, String idempotencyKey);
+
+    int purgeExpiredIdempotencyKeys();
+
+    BulkOrderResponse placeOrders(List<PlaceOrderRequest> requests, Long customerId);
+
+    OrderPlacementResponse placeHold(PlaceOrderRequest request, Long customerId);
+
+    OrderResponseDto confirmHold(Long orderId, Long customerId);
+
+    int releaseExpiredHolds(int batchSize);
+
+    String claimLifecycleBatch(OrderStatus from, int batchSize);
+
+    int advanceLifecycleBatch(String leaseOwner, OrderStatus from,
+            OrderStatus to);
 
     OrderResponseDto getOrderById(Long orderId);
 
@@ -16,9 +39,16 @@ public interface OrderService {
 
     List<OrderResponseDto> getOrdersByCompany(Long companyId);
 
-    List<OrderResponseDto> getOrdersByCompanyUser(Long userId);
+    CursorPageResponse<OrderResponseDto> getOrdersByCustomerPage(Long customerId, String status,
+            LocalDate createdFrom, LocalDate createdTo, String cursor, int limit);
+
+    CursorPageResponse<OrderResponseDto> getOrdersByCompanyPage(Long companyId, String status,
+            LocalDate createdFrom, LocalDate createdTo, String cursor, int limit);
 
     OrderResponseDto cancelOrder(Long orderId, Long customerId);
 
     OrderResponseDto updateOrderStatus(Long orderId, String status);
+
+    BulkStatusUpdateResponse updateOrderStatusesForCompany(Long companyId, List<Long> orderIds,
+            String status);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.cargorent.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public interface OutboxService {
+
+    void record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload);
+
+    void recordAll(String aggregateType, String eventType, List<Long> aggregateIds,
+            Function<Long, Map<String, Object>> payloads);
+
+    int relayBatch(String sinkName);
+
+    void replayFrom(String sinkName, long fromEventId);
+
+    Map<String, Map<String, Object>> stats();
+
+    int purgeDelivered();
+}
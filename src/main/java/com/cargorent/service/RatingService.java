@@ -9,4 +9,6 @@ public interface RatingService {
     RatingResponseDto addRating(Long userId, RatingRequestDto request);
 
     List<RatingResponseDto> getRatingsByCar(Long carId);
+
+    int reconcileRatingStats();
 }
@@ -0,0 +1,14 @@
+package com.cargorent.service;
+
+public interface RefreshTokenService {
+
+    String issue(Long userId);
+
+    // Consumes the presented token and returns its replacement
+    Rotation rotate(String refreshToken);
+
+    int purgeExpired();
+
+    record Rotation(Long userId, String refreshToken) {
+    }
+}
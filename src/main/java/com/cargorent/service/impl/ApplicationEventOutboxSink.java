@@ -0,0 +1,30 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OutboxEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return "event-bus";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            eventPublisher.publishEvent(new OutboxPublishedEvent(event.getId(), event.getAggregateType(),
+                    event.getAggregateId(), event.getEventType(), event.getPayload(), event.getCreatedAt()));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.BulkOrderResponse;
+import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.dto.PlaceOrderRequest;
+import com.cargorent.entity.Car;
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.entity.User;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
+import com.cargorent.repository.CompanyRepository;
+import com.cargorent.repository.OrderRepository;
+import com.cargorent.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Places many orders for one customer in a single transaction, failing each order on
+ * its own instead of the whole batch.
+ */
+@Component
+public class BulkOrderPlacement {
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final OrderPlacement placement;
+    private final OrderReservations reservations;
+    private final OrderEvents events;
+
+    public BulkOrderPlacement(OrderRepository orderRepository, UserRepository userRepository,
+            CompanyRepository companyRepository, OrderPlacement placement, OrderReservations reservations,
+            OrderEvents events) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.companyRepository = companyRepository;
+        this.placement = placement;
+        this.reservations = reservations;
+        this.events = events;
+    }
+
+    // Shared lookups for the whole batch: one customer read, one company and one owner
+    // fetch, one car lock and one overlap query. Each order is validated in memory
+    // against that snapshot plus the orders accepted before it, so a rejected order
+    // writes nothing and the accepted ones are flushed together. SLOTS mode takes no car
+    // locks, so each order also claims its day slots as it goes and a slot conflict fails
+    // only that order.
+    @Transactional
+    public BulkOrderResponse placeOrders(List<PlaceOrderRequest> requests, Long customerId) {
+
+        User customer = placement.loadCustomer(customerId);
+
+        Set<Long> companyIds = new TreeSet<>();
+        Set<Long> ownerIds = new TreeSet<>();
+        Set<Long> carIds = new TreeSet<>();
+        List<OrderItemRequest> allItems = new ArrayList<>();
+        for (PlaceOrderRequest request : requests) {
+            if (request.getCompanyId() != null) {
+                companyIds.add(request.getCompanyId());
+            } else if (request.getOwnerId() != null) {
+                ownerIds.add(request.getOwnerId());
+            }
+            request.getItems().forEach(item -> carIds.add(item.getCarId()));
+            allItems.addAll(request.getItems());
+        }
+
+        Map<Long, Company> companiesById = new HashMap<>();
+        companyRepository.findAllById(companyIds).forEach(company -> companiesById.put(company.getId(), company));
+        Map<Long, User> ownersById = new HashMap<>();
+        userRepository.findAllById(ownerIds).forEach(owner -> ownersById.put(owner.getId(), owner));
+
+        Map<Long, Car> carsById = reservations.loadCars(carIds);
+        Map<Long, List<LocalDate[]>> bookingsByCar = reservations.loadBookings(carIds, allItems);
+
+        List<BulkOrderResponse.Result> results = new ArrayList<>();
+        List<Order> accepted = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            PlaceOrderRequest request = requests.get(i);
+            try {
+                Company company = null;
+                User owner = null;
+
+                if (request.getCompanyId() != null) {
+                    company = companiesById.get(request.getCompanyId());
+                    if (company == null) {
+                        throw new ResourceNotFoundException("Company not found");
+                    }
+                } else if (request.getOwnerId() != null) {
+                    owner = ownersById.get(request.getOwnerId());
+                    if (owner == null) {
+                        throw new ResourceNotFoundException("Owner not found");
+                    }
+                } else {
+                    throw new BadRequestException("Either Company ID or Owner ID must be provided");
+                }
+
+                List<OrderItemRequest> itemRequests = request.getItems();
+                OrderReservations.validateItemDates(itemRequests);
+                OrderReservations.checkCarsBelongTo(itemRequests, carsById, company, request.getOwnerId());
+                OrderReservations.checkNoOverlapWithinRequest(itemRequests, carsById);
+                OrderReservations.checkNoExistingBookings(itemRequests, carsById, bookingsByCar);
+
+                Order order = OrderPlacement.buildOrder(customer, company, owner, OrderStatus.PLACED, null,
+                        itemRequests, carsById);
+                orderRepository.save(order);
+                if (reservations.mode() == ReservationMode.SLOTS && !reservations.claimBookingDays(order)) {
+                    // Removed in the same session, so nothing of it is left once the transaction commits
+                    orderRepository.delete(order);
+                    throw new BadRequestException("One or more cars are already booked for the selected dates");
+                }
+                accepted.add(order);
+                events.record(order, "ORDER_PLACED");
+
+                // Later orders in the batch must see this one's dates as taken
+                itemRequests.forEach(item -> bookingsByCar.computeIfAbsent(item.getCarId(), id -> new ArrayList<>())
+                        .add(new LocalDate[] { item.getStartDate(), item.getEndDate() }));
+
+                results.add(new BulkOrderResponse.Result(i, "PLACED", order.getId(), order.getTotalAmount(), null));
+            } catch (BadRequestException | ResourceNotFoundException ex) {
+                results.add(new BulkOrderResponse.Result(i, "FAILED", null, null, ex.getMessage()));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            if (reservations.mode() == ReservationMode.ROW_LOCK) {
+                // The cars are locked and every order was checked against the others, so this cannot conflict
+                reservations.reserveBookingDays(accepted);
+            }
+            reservations.bookAfterCommit(accepted);
+        }
+
+        return new BulkOrderResponse(accepted.size(), requests.size() - accepted.size(), results);
+    }
+}
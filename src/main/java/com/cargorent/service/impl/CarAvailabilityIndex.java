@@ -0,0 +1,209 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OrderItem;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.repository.OrderItemRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-car booking ranges used by car search instead of the order_items
+ * anti-join. Booking still validates against the database, so the index only
+ * decides what search shows.
+ * <p>
+ * Each node applies its own bookings on commit and everyone else's from the outbox
+ * event bus, so search on other nodes lags by about one relay interval. Without the
+ * relay the index would only ever see local bookings, so it then stays off unless
+ * single-node mode is switched on.
+ */
+@Component
+@lombok.extern.slf4j.Slf4j
+public class CarAvailabilityIndex implements CommandLineRunner {
+
+    private final OrderItemRepository orderItemRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    private final Map<Long, CarBookings> bookingsByCar = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> carsByOrder = new ConcurrentHashMap<>();
+    private final Set<Long> releasedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loading = false;
+    private volatile LocalDate coveredFrom = null;
+
+    public CarAvailabilityIndex(OrderItemRepository orderItemRepository, ObjectMapper objectMapper,
+            @Value("${cargorent.availability-index.enabled:true}") boolean enabled,
+            @Value("${cargorent.availability-index.single-node:false}") boolean singleNode,
+            @Value("${cargorent.outbox.relay-enabled:true}") boolean relayEnabled) {
+        this.orderItemRepository = orderItemRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled && (relayEnabled || singleNode);
+
+        if (enabled && !this.enabled) {
+            log.warn("Car availability index needs the outbox relay to see other nodes' bookings; "
+                    + "set cargorent.availability-index.single-node=true to run it on local bookings only");
+        }
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            log.info("Car availability index disabled, search will use the database");
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        loading = true;
+        try {
+            List<Object[]> rows = orderItemRepository.findBookingsEndingOnOrAfter(OrderStatus.OCCUPYING, today);
+            for (Object[] row : rows) {
+                Long orderId = (Long) row[0];
+                if (!releasedWhileLoading.contains(orderId)) {
+                    add(new Booking(orderId, (Long) row[1], (LocalDate) row[2], (LocalDate) row[3]));
+                }
+            }
+            coveredFrom = today;
+            log.info("Car availability index loaded {} bookings for {} cars", rows.size(), bookingsByCar.size());
+        } finally {
+            loading = false;
+            releasedWhileLoading.clear();
+        }
+    }
+
+    // Bookings that ended before startup are not loaded, so older ranges go to the DB
+    public boolean covers(LocalDate startDate) {
+        LocalDate from = coveredFrom;
+        return enabled && from != null && startDate != null && !startDate.isBefore(from);
+    }
+
+    public boolean isAvailable(Long carId, LocalDate startDate, LocalDate endDate) {
+        CarBookings bookings = bookingsByCar.get(carId);
+        return bookings == null || !bookings.overlaps(startDate, endDate);
+    }
+
+    public void bookAfterCommit(Long orderId, List<OrderItem> items) {
+        if (!enabled) {
+            return;
+        }
+        List<Booking> bookings = items.stream()
+                .map(item -> new Booking(orderId, item.getCar().getId(), item.getStartDate(), item.getEndDate()))
+                .toList();
+        AfterCommit.run(() -> bookings.forEach(this::add));
+    }
+
+    public void releaseAfterCommit(Long orderId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> release(orderId));
+    }
+
+    // Placements are read back from the database, so replays and events for orders
+    // cancelled in the meantime add nothing
+    @EventListener
+    public void onOutboxEvent(OutboxPublishedEvent event) {
+        if (!enabled || !"ORDER".equals(event.aggregateType())) {
+            return;
+        }
+
+        switch (event.eventType()) {
+            case "ORDER_PLACED", "ORDER_HELD" -> orderItemRepository
+                    .findBookingsByOrderId(event.aggregateId(), OrderStatus.OCCUPYING)
+                    .forEach(row -> add(new Booking((Long) row[0], (Long) row[1], (LocalDate) row[2],
+                            (LocalDate) row[3])));
+            case "ORDER_CANCELLED" -> release(event.aggregateId());
+            case "ORDER_STATUS_CHANGED" -> {
+                OrderStatus status = statusOf(event);
+                if (status != null && !OrderStatus.OCCUPYING.contains(status)) {
+                    release(event.aggregateId());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    // A bad payload must not stall the relay; the index just keeps what it has
+    private OrderStatus statusOf(OutboxPublishedEvent event) {
+        try {
+            return OrderStatus.valueOf(objectMapper.readTree(event.payload()).path("status").asText());
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            log.warn("Outbox event {} has no readable order status", event.id());
+            return null;
+        }
+    }
+
+    private void add(Booking booking) {
+        bookingsByCar.computeIfAbsent(booking.carId(), id -> new CarBookings()).add(booking);
+        carsByOrder.computeIfAbsent(booking.orderId(), id -> ConcurrentHashMap.newKeySet()).add(booking.carId());
+    }
+
+    private void release(Long orderId) {
+        if (loading) {
+            releasedWhileLoading.add(orderId);
+        }
+        Set<Long> carIds = carsByOrder.remove(orderId);
+        if (carIds == null) {
+            return;
+        }
+        for (Long carId : carIds) {
+            CarBookings bookings = bookingsByCar.get(carId);
+            if (bookings != null) {
+                bookings.removeOrder(orderId);
+            }
+        }
+    }
+
+    private record Booking(Long orderId, Long carId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    // Keyed by start date; the longest span bounds how far back an overlap can start
+    private static class CarBookings {
+
+        private final NavigableMap<LocalDate, List<Booking>> byStart = new TreeMap<>();
+        private long maxSpanDays = 0;
+
+        synchronized void add(Booking booking) {
+            List<Booking> sameStart = byStart.computeIfAbsent(booking.startDate(), d -> new ArrayList<>(1));
+            if (!sameStart.contains(booking)) {
+                sameStart.add(booking);
+                maxSpanDays = Math.max(maxSpanDays,
+                        ChronoUnit.DAYS.between(booking.startDate(), booking.endDate()));
+            }
+        }
+
+        synchronized void removeOrder(Long orderId) {
+            byStart.values().forEach(list -> list.removeIf(b -> b.orderId().equals(orderId)));
+            byStart.values().removeIf(List::isEmpty);
+        }
+
+        synchronized boolean overlaps(LocalDate startDate, LocalDate endDate) {
+            if (endDate.isBefore(startDate)) {
+                return false;
+            }
+            LocalDate earliestStart = startDate.minusDays(maxSpanDays);
+            for (List<Booking> list : byStart.subMap(earliestStart, true, endDate, true).values()) {
+                for (Booking booking : list) {
+                    if (!booking.endDate().isBefore(startDate)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.CarResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the public car catalog. Writers evict the affected
+ * entries once their transaction commits; the TTL bounds anything a concurrent
+ * read re-populated in between.
+ */
+@Component
+public class CarCatalogCache {
+
+    private static final String PUBLIC_CATALOG_KEY = "public";
+
+    private final Cache<String, List<CarResponseDto>> publicCatalog;
+    private final Cache<Long, CarResponseDto> carsById;
+    private final Cache<Long, List<CarResponseDto>> carsByCompany;
+
+    public CarCatalogCache(
+            @Value("${cargorent.catalog-cache.max-size:10000}") long maxSize,
+            @Value("${cargorent.catalog-cache.ttl-seconds:300}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.publicCatalog = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(ttl).recordStats().build();
+        this.carsById = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.carsByCompany = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    public List<CarResponseDto> getPublicCatalog(Supplier<List<CarResponseDto>> loader) {
+        return publicCatalog.get(PUBLIC_CATALOG_KEY, key -> loader.get());
+    }
+
+    public CarResponseDto getCar(Long carId, Function<Long, CarResponseDto> loader) {
+        return carsById.get(carId, loader);
+    }
+
+    public List<CarResponseDto> getCompanyCars(Long companyId, Function<Long, List<CarResponseDto>> loader) {
+        return carsByCompany.get(companyId, loader);
+    }
+
+    // A car changed: its own entry, its company's list and the public catalog are stale
+    public void evictCarAfterCommit(Long carId, Long companyId) {
+        AfterCommit.run(() -> {
+            if (carId != null) {
+                carsById.invalidate(carId);
+            }
+            if (companyId != null) {
+                carsByCompany.invalidate(companyId);
+            }
+            publicCatalog.invalidateAll();
+        });
+    }
+
+    // Set-based order updates touch many cars; company lists are cheap to rebuild, so drop them all
+    public void evictCarsAfterCommit(Collection<Long> carIds) {
+        AfterCommit.run(() -> {
+            carsById.invalidateAll(carIds);
+            carsByCompany.invalidateAll();
+            publicCatalog.invalidateAll();
+        });
+    }
+
+    // Company approval only changes which cars the public catalog shows
+    public void evictPublicCatalogAfterCommit() {
+        AfterCommit.run(publicCatalog::invalidateAll);
+    }
+
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("publicCatalog", toMap(publicCatalog));
+        stats.put("carsById", toMap(carsById));
+        stats.put("carsByCompany", toMap(carsByCompany));
+        return stats;
+    }
+
+    private Map<String, Long> toMap(Cache<?, ?> cache) {
+        CacheStats cacheStats = cache.stats();
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("hits", cacheStats.hitCount());
+        values.put("misses", cacheStats.missCount());
+        values.put("evictions", cacheStats.evictionCount());
+        values.put("size", cache.estimatedSize());
+        return values;
+    }
+}
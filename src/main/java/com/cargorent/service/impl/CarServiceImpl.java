@@ -1,44 +1,70 @@
 package com.cargorent.service.impl;
 
+import com.cargorent.dto.CarListingView;
 import com.cargorent.dto.CarRequestDto;
 import com.cargorent.dto.CarResponseDto;
+import com.cargorent.dto.CursorPageResponse;
 import com.cargorent.entity.Car;
+import com.cargorent.entity.CarType;
 import com.cargorent.entity.Company;
+import com.cargorent.entity.CompanyType;
+import com.cargorent.entity.Role;
+import com.cargorent.entity.User;
 import com.cargorent.exception.BadRequestException;
 import com.cargorent.exception.ResourceNotFoundException;
 import com.cargorent.repository.CarRepository;
 import com.cargorent.repository.CompanyRepository;
+import com.cargorent.repository.UserRepository;
 import com.cargorent.service.CarService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
-@org.springframework.transaction.annotation.Transactional
+@Transactional
 public class CarServiceImpl implements CarService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Index-filtered search reads candidates in windows of this many rows or more
+    private static final int MIN_CANDIDATE_WINDOW = 200;
+    // Windows scanned per request before a partial page is returned
+    private static final int MAX_CANDIDATE_WINDOWS = 10;
+
     private final CarRepository carRepository;
     private final CompanyRepository companyRepository;
-    private final com.cargorent.repository.UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final CarAvailabilityIndex carAvailabilityIndex;
+    private final CarCatalogCache carCatalogCache;
 
     public CarServiceImpl(CarRepository carRepository, CompanyRepository companyRepository,
-            com.cargorent.repository.UserRepository userRepository) {
+            UserRepository userRepository,
+            CarAvailabilityIndex carAvailabilityIndex,
+            CarCatalogCache carCatalogCache) {
         this.carRepository = carRepository;
         this.companyRepository = companyRepository;
         this.userRepository = userRepository;
+        this.carAvailabilityIndex = carAvailabilityIndex;
+        this.carCatalogCache = carCatalogCache;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarResponseDto> getCarsByCompany(Long companyId) {
-        return carRepository.findCarsWithCompany(companyId)
+        return carCatalogCache.getCompanyCars(companyId, id -> carRepository.findCompanyListings(id)
                 .stream()
                 .map(this::mapToDto)
-                .toList();
+                .toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarResponseDto> getCarsByOwner(Long userId) {
-        return carRepository.findByOwner_IdAndIsActiveTrue(userId)
+        return carRepository.findOwnerListings(userId)
                 .stream()
                 .map(this::mapToDto)
                 .toList();
@@ -59,6 +85,7 @@ public class CarServiceImpl implements CarService {
                 + (car.getOwner() != null ? car.getOwner().getId() : "null"));
         try {
             Car savedCar = carRepository.save(car);
+            carCatalogCache.evictCarAfterCommit(savedCar.getId(), companyId);
             return mapToDto(savedCar);
         } catch (Exception e) {
             e.printStackTrace();
@@ -68,15 +95,15 @@ public class CarServiceImpl implements CarService {
 
     @Override
     public CarResponseDto addCarForMember(Long userId, CarRequestDto dto) {
-        com.cargorent.entity.User user = userRepository.findById(userId)
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        if (user.getRole() != com.cargorent.entity.Role.MEMBER && user.getRole() != com.cargorent.entity.Role.ADMIN) {
+        if (user.getRole() != Role.MEMBER && user.getRole() != Role.ADMIN) {
             // Depending on requirements, maybe only MEMBER can add personal cars
         }
 
         // Fetch System Company "Members Fleet"
-        Company membersFleet = companyRepository.findByCompanyType(com.cargorent.entity.CompanyType.SYSTEM)
+        Company membersFleet = companyRepository.findByCompanyType(CompanyType.SYSTEM)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "System Company 'Members Fleet' not found. Please restart application to initialize data."));
 
@@ -87,23 +114,24 @@ public class CarServiceImpl implements CarService {
         validateCarOwnership(car);
 
         Car savedCar = carRepository.save(car);
+        carCatalogCache.evictCarAfterCommit(savedCar.getId(), membersFleet.getId());
         return mapToDto(savedCar);
     }
 
     private void validateCarOwnership(Car car) {
-        com.cargorent.entity.CompanyType type = car.getCompany() != null ? car.getCompany().getCompanyType() : null;
+        CompanyType type = car.getCompany() != null ? car.getCompany().getCompanyType() : null;
         if (type == null && car.getCompany() != null) {
-            type = com.cargorent.entity.CompanyType.NORMAL; // Default to NORMAL if null/missing
+            type = CompanyType.NORMAL; // Default to NORMAL if null/missing
         }
 
         // Case 1: Standard Company Car
-        if (car.getCompany() != null && type == com.cargorent.entity.CompanyType.NORMAL
+        if (car.getCompany() != null && type == CompanyType.NORMAL
                 && car.getOwner() == null) {
             return;
         }
 
         // Case 2: Member Car (Must belong to System Company)
-        if (car.getCompany() != null && type == com.cargorent.entity.CompanyType.SYSTEM
+        if (car.getCompany() != null && type == CompanyType.SYSTEM
                 && car.getOwner() != null) {
             return;
         }
@@ -152,6 +180,7 @@ public class CarServiceImpl implements CarService {
         }
 
         Car updatedCar = carRepository.save(car);
+        carCatalogCache.evictCarAfterCommit(carId, companyId);
         return mapToDto(updatedCar);
     }
 
@@ -167,6 +196,7 @@ public class CarServiceImpl implements CarService {
         // Soft delete
         car.setActive(false);
         carRepository.save(car);
+        carCatalogCache.evictCarAfterCommit(carId, companyId);
     }
 
     @Override
@@ -181,6 +211,7 @@ public class CarServiceImpl implements CarService {
         // Soft delete
         car.setActive(false);
         carRepository.save(car);
+        carCatalogCache.evictCarAfterCommit(carId, car.getCompany() != null ? car.getCompany().getId() : null);
     }
 
     private CarResponseDto mapToDto(Car car) {
@@ -204,32 +235,133 @@ public class CarServiceImpl implements CarService {
                 car.getCompany() != null ? car.getCompany().getCompanyType().name() : null);
     }
 
+    CarResponseDto mapToDto(CarListingView car) {
+        long ratingCount = car.getRatingCount() != null ? car.getRatingCount() : 0;
+        return new CarResponseDto(
+                car.getId(),
+                car.getModel(),
+                car.getBrand(),
+                car.getPricePerDay(),
+                Boolean.TRUE.equals(car.getAvailability()),
+                Boolean.TRUE.equals(car.getIsActive()),
+                car.getImageUrl(),
+                car.getCompanyId(),
+                car.getCompanyName(),
+                car.getLocation(),
+                car.getCarType(),
+                car.getSeatingCapacity() != null ? car.getSeatingCapacity() : 0,
+                car.getDescription(),
+                car.getOwnerId(),
+                car.getOwnerName(),
+                ratingCount > 0 ? Math.round((double) car.getRatingSum() / ratingCount * 10.0) / 10.0 : 0.0,
+                car.getCompanyType() != null ? car.getCompanyType().name() : null);
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<CarResponseDto> searchCars(
-            java.time.LocalDate startDate,
-            java.time.LocalDate endDate,
+            LocalDate startDate,
+            LocalDate endDate,
             String location,
-            com.cargorent.entity.CarType carType,
+            CarType carType,
             Integer seatingCapacity) {
 
-        return carRepository.findAvailableCars(startDate, endDate, location, carType, seatingCapacity)
+        // Without both dates there is nothing to exclude; ranges older than the index go to the DB
+        if (startDate == null || endDate == null || !carAvailabilityIndex.covers(startDate)) {
+            return carRepository.findAvailableCars(startDate, endDate, location, carType, seatingCapacity,
+                    null, Pageable.unpaged())
+                    .stream()
+                    .map(this::mapToDto)
+                    .toList();
+        }
+
+        return carRepository.findSearchCandidates(location, carType, seatingCapacity, null, Pageable.unpaged())
                 .stream()
+                .filter(car -> carAvailabilityIndex.isAvailable(car.getId(), startDate, endDate))
                 .map(this::mapToDto)
                 .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CarResponseDto> searchCarsPage(
+            LocalDate startDate,
+            LocalDate endDate,
+            String location,
+            CarType carType,
+            Integer seatingCapacity,
+            Long after,
+            int limit) {
+
+        validatePageSize(limit);
+        // One extra row tells us whether another page exists
+        Pageable window = PageRequest.of(0, limit + 1);
+
+        if (startDate == null || endDate == null || !carAvailabilityIndex.covers(startDate)) {
+            return toPage(carRepository.findAvailableCars(startDate, endDate, location, carType, seatingCapacity,
+                    after, window), limit);
+        }
+
+        // Candidates are filtered after the limit, so keep reading windows until the page is full.
+        // A sparse match stops after a fixed number of windows and returns what it has, with the
+        // last scanned id as the cursor, so one request never walks the whole table.
+        Pageable candidateWindow = PageRequest.of(0, Math.max(limit * 4, MIN_CANDIDATE_WINDOW));
+        List<CarListingView> matches = new ArrayList<>();
+        Long cursor = after;
+        for (int windows = 0; windows < MAX_CANDIDATE_WINDOWS; windows++) {
+            List<CarListingView> candidates = carRepository.findSearchCandidates(location, carType, seatingCapacity,
+                    cursor, candidateWindow);
+            for (CarListingView car : candidates) {
+                if (carAvailabilityIndex.isAvailable(car.getId(), startDate, endDate)) {
+                    matches.add(car);
+                    if (matches.size() > limit) {
+                        return toPage(matches, limit);
+                    }
+                }
+            }
+            if (candidates.size() < candidateWindow.getPageSize()) {
+                return toPage(matches, limit);
+            }
+            cursor = candidates.get(candidates.size() - 1).getId();
+        }
+        return new CursorPageResponse<>(matches.stream().map(this::mapToDto).toList(), String.valueOf(cursor));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CarResponseDto getCarById(Long carId) {
-        Car car = carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found"));
-        return mapToDto(car);
+        return carCatalogCache.getCar(carId, id -> carRepository.findListingById(id)
+                .map(this::mapToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Car not found")));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarResponseDto> getAllCarsForPublicDisplay() {
-        return carRepository.findAllActiveForPublicDisplay()
+        return carCatalogCache.getPublicCatalog(() -> carRepository.findActiveForPublicDisplay(null, Pageable.unpaged())
                 .stream()
                 .map(this::mapToDto)
-                .toList();
+                .toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CarResponseDto> getCarsForPublicDisplayPage(Long after, int limit) {
+        validatePageSize(limit);
+        return toPage(carRepository.findActiveForPublicDisplay(after, PageRequest.of(0, limit + 1)), limit);
+    }
+
+    private void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    // Cars are ordered by id descending, so the last id on the page is the next cursor
+    private CursorPageResponse<CarResponseDto> toPage(List<CarListingView> cars, int limit) {
+        boolean hasMore = cars.size() > limit;
+        List<CarListingView> page = hasMore ? cars.subList(0, limit) : cars;
+        String nextCursor = hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null;
+        return new CursorPageResponse<>(page.stream().map(this::mapToDto).toList(), nextCursor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.Role;
+import com.cargorent.repository.CompanyRepository;
+import com.cargorent.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fills in the company part of a company user's principal. The company id comes
+ * from the access token; the active flag can change while a token is valid, so it
+ * is cached per company and evicted when the company is approved or rejected.
+ */
+@Component
+public class CompanyPrincipalCache {
+
+    private final CompanyRepository companyRepository;
+    private final Cache<Long, Boolean> activeByCompany;
+    private final Cache<Long, Long> companyByUser;
+
+    public CompanyPrincipalCache(CompanyRepository companyRepository,
+            @Value("${cargorent.company-principal-cache.max-size:10000}") long maxSize,
+            @Value("${cargorent.company-principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.companyRepository = companyRepository;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.activeByCompany = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.companyByUser = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    public UserPrincipal enrich(UserPrincipal principal) {
+        if (!Role.COMPANY.name().equals(principal.getRole())) {
+            return principal;
+        }
+
+        // Tokens issued before the company existed carry no company id
+        Long companyId = principal.getCompanyId();
+        if (companyId == null) {
+            companyId = companyByUser.get(principal.getUserId(),
+                    userId -> companyRepository.findIdByUserId(userId).orElse(null));
+            if (companyId == null) {
+                return principal;
+            }
+        }
+
+        boolean active = activeByCompany.get(companyId,
+                id -> companyRepository.findActiveById(id).orElse(false));
+        if (companyId.equals(principal.getCompanyId()) && active == principal.isCompanyActive()) {
+            return principal;
+        }
+        return principal.withCompany(companyId, active);
+    }
+
+    public void evictCompanyAfterCommit(Long companyId) {
+        AfterCommit.run(() -> activeByCompany.invalidate(companyId));
+    }
+
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("activeByCompany", toMap(activeByCompany));
+        stats.put("companyByUser", toMap(companyByUser));
+        return stats;
+    }
+
+    private static Map<String, Long> toMap(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("size", cache.estimatedSize());
+        values.put("hits", stats.hitCount());
+        values.put("misses", stats.missCount());
+        return values;
+    }
+}
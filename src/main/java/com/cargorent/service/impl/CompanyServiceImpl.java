@@ -1,6 +1,7 @@
 package com.cargorent.service.impl;
 
 import com.cargorent.entity.Company;
+import com.cargorent.exception.ResourceNotFoundException;
 import com.cargorent.repository.CompanyRepository;
 import com.cargorent.service.CompanyService;
 import org.springframework.stereotype.Service;
@@ -12,9 +13,14 @@ import java.util.List;
 public class CompanyServiceImpl implements CompanyService {
 
     private final CompanyRepository companyRepository;
+    private final CarCatalogCache carCatalogCache;
+    private final CompanyPrincipalCache companyPrincipalCache;
 
-    public CompanyServiceImpl(CompanyRepository companyRepository) {
+    public CompanyServiceImpl(CompanyRepository companyRepository, CarCatalogCache carCatalogCache,
+            CompanyPrincipalCache companyPrincipalCache) {
         this.companyRepository = companyRepository;
+        this.carCatalogCache = carCatalogCache;
+        this.companyPrincipalCache = companyPrincipalCache;
     }
 
     @Override
@@ -36,17 +42,21 @@ public class CompanyServiceImpl implements CompanyService {
     public void approveCompany(Long companyId) {
         log.info("Attempting to approve company with ID: {}", companyId);
         Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new com.cargorent.exception.ResourceNotFoundException("Company not found"));
+                .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
         company.setActive(true);
         companyRepository.save(company);
+        carCatalogCache.evictPublicCatalogAfterCommit();
+        companyPrincipalCache.evictCompanyAfterCommit(companyId);
         log.info("Company with ID: {} approved successfully", companyId);
     }
 
     @Override
     public void rejectCompany(Long companyId) {
         Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new com.cargorent.exception.ResourceNotFoundException("Company not found"));
+                .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
         company.setActive(false);
         companyRepository.save(company);
+        carCatalogCache.evictPublicCatalogAfterCommit();
+        companyPrincipalCache.evictCompanyAfterCommit(companyId);
     }
 }
\ No newline at end of file
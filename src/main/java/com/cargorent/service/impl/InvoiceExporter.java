@@ -0,0 +1,212 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.CursorPageResponse;
+import com.cargorent.dto.OrderResponseDto;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
+import com.cargorent.exception.ServiceUnavailableException;
+import com.cargorent.repository.CompanyRepository;
+import com.cargorent.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a company's invoices for a date range as one ZIP. Orders are paged in
+ * (createdAt, id) order and rendered through the invoice store on a shared worker
+ * pool; each export keeps a fixed window of renders in flight and writes entries in
+ * page order, so memory does not grow with the number of orders. Whole exports run on
+ * a separate small pool with their own timeout, since a month of invoices can take far
+ * longer than the container's default async timeout.
+ */
+@Component
+@lombok.extern.slf4j.Slf4j
+public class InvoiceExporter {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final OrderService orderService;
+    private final InvoiceStore invoiceStore;
+    private final CompanyRepository companyRepository;
+    private final ThreadPoolExecutor renderers;
+    private final ThreadPoolExecutor exports;
+    private final int window;
+    private final long exportTimeoutMs;
+
+    public InvoiceExporter(OrderService orderService, InvoiceStore invoiceStore, CompanyRepository companyRepository,
+            @Value("${cargorent.invoice.export-workers:4}") int workerCount,
+            @Value("${cargorent.invoice.export-queue-capacity:64}") int queueCapacity,
+            @Value("${cargorent.invoice.export-window:16}") int window,
+            @Value("${cargorent.invoice.export-concurrency:2}") int exportConcurrency,
+            @Value("${cargorent.invoice.export-pending:4}") int exportPending,
+            @Value("${cargorent.invoice.export-timeout-ms:1800000}") long exportTimeoutMs) {
+        this.orderService = orderService;
+        this.invoiceStore = invoiceStore;
+        this.companyRepository = companyRepository;
+        this.window = window;
+        this.exportTimeoutMs = exportTimeoutMs;
+
+        // A full queue makes the exporting thread render the invoice itself
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renderers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-export-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        AtomicInteger exportNumber = new AtomicInteger();
+        this.exports = new ThreadPoolExecutor(exportConcurrency, exportConcurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(exportPending),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-export-job-" + exportNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Checks that must fail before the response starts streaming
+    public void validate(Long companyId, LocalDate from, LocalDate to) {
+        if (!companyRepository.existsById(companyId)) {
+            throw new ResourceNotFoundException("Company not found");
+        }
+        if (to.isBefore(from)) {
+            throw new BadRequestException("End date must be on or after start date");
+        }
+    }
+
+    // Starts the export on the export pool; the response stays open until it finishes or
+    // export-timeout-ms passes (0 means no limit)
+    public ResponseBodyEmitter stream(Long companyId, LocalDate from, LocalDate to) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMs);
+        emitter.onTimeout(() -> log.warn("Invoice export for company {} ({} to {}) timed out after {} ms",
+                companyId, from, to, exportTimeoutMs));
+
+        try {
+            exports.execute(() -> {
+                try {
+                    export(companyId, from, to, new EmitterOutputStream(emitter));
+                    emitter.complete();
+                } catch (Exception ex) {
+                    log.warn("Invoice export for company {} ({} to {}) stopped", companyId, from, to, ex);
+                    emitter.completeWithError(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceUnavailableException("Too many invoice exports in progress, please retry shortly");
+        }
+        return emitter;
+    }
+
+    public void export(Long companyId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        Deque<Pending> inFlight = new ArrayDeque<>();
+        int exported = 0;
+        try {
+            String cursor = null;
+            do {
+                CursorPageResponse<OrderResponseDto> page = orderService.getOrdersByCompanyPage(companyId, null, from,
+                        to, cursor, PAGE_SIZE);
+                for (OrderResponseDto order : page.getItems()) {
+                    inFlight.add(new Pending(order.getOrderId(),
+                            renderers.submit(() -> invoiceStore.getOrRender(order))));
+                    if (inFlight.size() >= window) {
+                        writeNext(zip, inFlight);
+                        exported++;
+                    }
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            while (!inFlight.isEmpty()) {
+                writeNext(zip, inFlight);
+                exported++;
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            // A client that disconnects mid-export must not leave renders queued
+            inFlight.forEach(pending -> pending.invoice().cancel(false));
+        }
+
+        log.info("Exported {} invoices for company {} ({} to {})", exported, companyId, from, to);
+    }
+
+    private void writeNext(ZipOutputStream zip, Deque<Pending> inFlight) throws IOException {
+        Pending pending = inFlight.poll();
+        InvoiceStore.StoredInvoice invoice;
+        try {
+            invoice = pending.invoice().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Invoice export interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Could not render invoice for order " + pending.orderId(), ex.getCause());
+        }
+
+        zip.putNextEntry(new ZipEntry("invoice_" + pending.orderId() + ".pdf"));
+        Files.copy(invoice.path(), zip);
+        zip.closeEntry();
+    }
+
+    private record Pending(Long orderId, Future<InvoiceStore.StoredInvoice> invoice) {
+    }
+
+    // export() buffers its output, so each send carries a full chunk and blocks while the client reads
+    private static class EmitterOutputStream extends OutputStream {
+
+        private final ResponseBodyEmitter emitter;
+
+        EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                emitter.send(Arrays.copyOfRange(bytes, offset, offset + length), MediaType.APPLICATION_OCTET_STREAM);
+            } catch (IllegalStateException ex) {
+                // The emitter is already complete, e.g. after a timeout
+                throw new IOException("Export response is no longer open", ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exports.shutdownNow();
+        renderers.shutdown();
+    }
+}
@@ -12,58 +12,73 @@ import org.springframework.stereotype.Service;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 @Service
 public class InvoiceServiceImpl implements InvoiceService {
 
+    // Fonts and the table layout are read-only, so every invoice shares them
+    private static final Font FONT_HEADER = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 22);
+    private static final Font FONT_BODY = FontFactory.getFont(FontFactory.HELVETICA, 12);
+    private static final Font FONT_TABLE_HEADER = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private static final Font FONT_TOTAL = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
+    private static final int[] COLUMN_WIDTHS = { 4, 4, 3, 3 };
+    private static final String[] COLUMN_TITLES = { "Car Model", "Days", "Price Only", "Subtotal" };
+
     @Override
     public ByteArrayInputStream generateInvoice(OrderResponseDto order) {
-        Document document = new Document();
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeInvoice(order, out);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeInvoice(OrderResponseDto order, OutputStream out) throws IOException {
+        Document document = new Document();
 
         try {
-            PdfWriter.getInstance(document, out);
+            // The caller owns the stream (for downloads, the servlet response)
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
             // Header
-            Font fontHeader = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 22);
-            Paragraph title = new Paragraph("CarGoRent Invoice", fontHeader);
+            Paragraph title = new Paragraph("CarGoRent Invoice", FONT_HEADER);
             title.setAlignment(Element.ALIGN_CENTER);
             document.add(title);
             document.add(Chunk.NEWLINE);
 
             // Order Details
-            Font fontBody = FontFactory.getFont(FontFactory.HELVETICA, 12);
-            document.add(new Paragraph("Order ID: " + order.getOrderId(), fontBody));
-            document.add(new Paragraph("Date: " + order.getCreatedAt().toLocalDate(), fontBody));
-            document.add(new Paragraph("Customer ID: " + order.getCustomerId(), fontBody));
+            document.add(new Paragraph("Order ID: " + order.getOrderId(), FONT_BODY));
+            document.add(new Paragraph("Date: " + order.getCreatedAt().toLocalDate(), FONT_BODY));
+            document.add(new Paragraph("Customer ID: " + order.getCustomerId(), FONT_BODY));
             if (order.getCompanyId() != null) {
-                document.add(new Paragraph("Company ID: " + order.getCompanyId(), fontBody));
+                document.add(new Paragraph("Company ID: " + order.getCompanyId(), FONT_BODY));
             } else if (order.getOwnerId() != null) {
-                document.add(new Paragraph("Owner ID: " + order.getOwnerId(), fontBody));
+                document.add(new Paragraph("Owner ID: " + order.getOwnerId(), FONT_BODY));
             }
             document.add(Chunk.NEWLINE);
 
             // Table
-            PdfPTable table = new PdfPTable(4);
+            PdfPTable table = new PdfPTable(COLUMN_WIDTHS.length);
             table.setWidthPercentage(100);
-            table.setWidths(new int[] { 4, 4, 3, 3 });
+            table.setWidths(COLUMN_WIDTHS);
 
             // Table Header
-            Font fontTableHeader = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
-            table.addCell(new PdfPCell(new Phrase("Car Model", fontTableHeader)));
-            table.addCell(new PdfPCell(new Phrase("Days", fontTableHeader)));
-            table.addCell(new PdfPCell(new Phrase("Price Only", fontTableHeader))); // Just price concept
-            table.addCell(new PdfPCell(new Phrase("Subtotal", fontTableHeader)));
+            for (String columnTitle : COLUMN_TITLES) {
+                table.addCell(new PdfPCell(new Phrase(columnTitle, FONT_TABLE_HEADER)));
+            }
 
             // Items
             if (order.getItems() != null) {
                 for (OrderItemResponseDto item : order.getItems()) {
                     table.addCell(item.getCarModel());
                     table.addCell(String.valueOf(item.getNumberOfDays()));
-                    // Calculate daily rate roughly if not present, but item.getPrice() is usually
-                    // total for that item
-                    // Assuming item.getPrice() is the total for that item line
+                    // item.getPrice() is the total for that item line
                     double dailyRate = item.getPrice() / item.getNumberOfDays();
                     table.addCell(String.format("%.2f", dailyRate));
                     table.addCell(String.format("%.2f", item.getPrice()));
@@ -74,24 +89,21 @@ public class InvoiceServiceImpl implements InvoiceService {
             document.add(Chunk.NEWLINE);
 
             // Total
-            Font fontTotal = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
-            Paragraph total = new Paragraph("Total Amount: ₹" + order.getTotalAmount(), fontTotal);
+            Paragraph total = new Paragraph("Total Amount: ₹" + order.getTotalAmount(), FONT_TOTAL);
             total.setAlignment(Element.ALIGN_RIGHT);
             document.add(total);
 
             // Footer
             document.add(Chunk.NEWLINE);
             document.add(Chunk.NEWLINE);
-            Paragraph footer = new Paragraph("Thank you for choosing CarGoRent!", fontBody);
+            Paragraph footer = new Paragraph("Thank you for choosing CarGoRent!", FONT_BODY);
             footer.setAlignment(Element.ALIGN_CENTER);
             document.add(footer);
 
             document.close();
 
         } catch (DocumentException e) {
-            e.printStackTrace();
+            throw new IOException("Could not render invoice for order " + order.getOrderId(), e);
         }
-
-        return new ByteArrayInputStream(out.toByteArray());
     }
 }
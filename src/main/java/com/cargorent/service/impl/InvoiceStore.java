@@ -0,0 +1,222 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderResponseDto;
+import com.cargorent.service.InvoiceService;
+import com.cargorent.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps rendered invoice PDFs on local disk. Blobs are named after the SHA-256 of
+ * their bytes and each order has a small ref file pointing at its blob, so the hash
+ * doubles as the download ETag. Orders are rendered ahead of time when they become
+ * CONFIRMED or COMPLETED, and on the first download otherwise.
+ */
+@Component
+@lombok.extern.slf4j.Slf4j
+public class InvoiceStore {
+
+    private static final Set<String> PRERENDER_STATUSES = Set.of("CONFIRMED", "COMPLETED");
+
+    private final InvoiceService invoiceService;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final Path blobDirectory;
+    private final Path refDirectory;
+    private final boolean prerenderEnabled;
+    private final ThreadPoolExecutor prerenderer;
+    private final Map<Long, CompletableFuture<StoredInvoice>> rendering = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong prerenderDropped = new AtomicLong();
+
+    public InvoiceStore(InvoiceService invoiceService, OrderService orderService, ObjectMapper objectMapper,
+            @Value("${cargorent.invoice.store-dir:data/invoices}") String directory,
+            @Value("${cargorent.invoice.prerender-enabled:true}") boolean prerenderEnabled,
+            @Value("${cargorent.invoice.prerender-queue-capacity:1000}") int prerenderQueueCapacity) {
+        this.invoiceService = invoiceService;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.blobDirectory = Paths.get(directory, "blobs");
+        this.refDirectory = Paths.get(directory, "orders");
+        this.prerenderEnabled = prerenderEnabled;
+
+        // Pre-rendering is only a head start; a full queue leaves the work to the first download
+        this.prerenderer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(prerenderQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-prerender");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> prerenderDropped.incrementAndGet());
+    }
+
+    public record StoredInvoice(Path path, String hash, long size) {
+    }
+
+    public StoredInvoice getOrRender(OrderResponseDto order) throws IOException {
+        StoredInvoice stored = lookup(order.getOrderId());
+        if (stored != null) {
+            hits.incrementAndGet();
+            return stored;
+        }
+        misses.incrementAndGet();
+        return render(order);
+    }
+
+    // Concurrent misses for one order share a single render
+    private StoredInvoice render(OrderResponseDto order) throws IOException {
+        CompletableFuture<StoredInvoice> mine = new CompletableFuture<>();
+        CompletableFuture<StoredInvoice> running = rendering.putIfAbsent(order.getOrderId(), mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                throw new IOException("Invoice render failed for order " + order.getOrderId(), ex.getCause());
+            }
+        }
+
+        try {
+            StoredInvoice stored = lookup(order.getOrderId());
+            if (stored == null) {
+                stored = write(order);
+            }
+            mine.complete(stored);
+            return stored;
+        } catch (IOException | RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            rendering.remove(order.getOrderId(), mine);
+        }
+    }
+
+    private StoredInvoice lookup(Long orderId) throws IOException {
+        Path ref = refDirectory.resolve(orderId + ".ref");
+        if (!Files.exists(ref)) {
+            return null;
+        }
+        String hash = Files.readString(ref).trim();
+        Path blob = blobDirectory.resolve(hash + ".pdf");
+        if (!Files.exists(blob)) {
+            return null;
+        }
+        return new StoredInvoice(blob, hash, Files.size(blob));
+    }
+
+    // Renders to a temp file while hashing, then moves blob and ref into place atomically
+    private StoredInvoice write(OrderResponseDto order) throws IOException {
+        Files.createDirectories(blobDirectory);
+        Files.createDirectories(refDirectory);
+
+        MessageDigest digest = sha256();
+        Path tempBlob = Files.createTempFile(blobDirectory, "invoice-", ".tmp");
+        try {
+            try (OutputStream out = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempBlob)), digest)) {
+                invoiceService.writeInvoice(order, out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Path blob = blobDirectory.resolve(hash + ".pdf");
+            if (!Files.exists(blob)) {
+                Files.move(tempBlob, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            Path tempRef = Files.createTempFile(refDirectory, "ref-", ".tmp");
+            Files.writeString(tempRef, hash);
+            Files.move(tempRef, refDirectory.resolve(order.getOrderId() + ".ref"),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            renders.incrementAndGet();
+            return new StoredInvoice(blob, hash, Files.size(blob));
+        } finally {
+            Files.deleteIfExists(tempBlob);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // ================= PRE-RENDER =================
+    // Delivered by the outbox event-bus sink inside the relay, so the work is handed off
+    @EventListener
+    public void onOutboxEvent(OutboxPublishedEvent event) {
+        if (!prerenderEnabled || !"ORDER".equals(event.aggregateType())
+                || !"ORDER_STATUS_CHANGED".equals(event.eventType())) {
+            return;
+        }
+
+        try {
+            JsonNode status = objectMapper.readTree(event.payload()).get("status");
+            if (status == null || !PRERENDER_STATUSES.contains(status.asText())) {
+                return;
+            }
+        } catch (IOException ex) {
+            log.warn("Unreadable payload on outbox event {}", event.id(), ex);
+            return;
+        }
+
+        Long orderId = event.aggregateId();
+        prerenderer.execute(() -> prerender(orderId));
+    }
+
+    private void prerender(Long orderId) {
+        try {
+            if (lookup(orderId) == null) {
+                render(orderService.getOrderById(orderId));
+            }
+        } catch (Exception ex) {
+            log.warn("Could not pre-render invoice for order {}", orderId, ex);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("renders", renders.get());
+        stats.put("prerenderQueueDepth", (long) prerenderer.getQueue().size());
+        stats.put("prerenderDropped", prerenderDropped.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prerenderer.shutdown();
+    }
+}
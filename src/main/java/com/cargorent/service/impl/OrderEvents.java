@@ -0,0 +1,46 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.service.OutboxService;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes order events to the outbox in the caller's transaction.
+ */
+@Component
+public class OrderEvents {
+
+    private final OutboxService outboxService;
+
+    public OrderEvents(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    void record(Order order, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("status", order.getStatus().name());
+        payload.put("customerId", order.getCustomer().getId());
+        payload.put("companyId", order.getCompany() != null ? order.getCompany().getId() : null);
+        payload.put("ownerId", order.getOwner() != null ? order.getOwner().getId() : null);
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("startDate", order.getStartDate());
+        payload.put("endDate", order.getEndDate());
+        outboxService.record("ORDER", order.getId(), eventType, payload);
+    }
+
+    // Set-based updates do not load the orders, so their events carry just the new status
+    void recordStatusChanges(List<Long> orderIds, OrderStatus status) {
+        outboxService.recordAll("ORDER", statusEventType(status), orderIds,
+                orderId -> Map.of("orderId", orderId, "status", status.name()));
+    }
+
+    static String statusEventType(OrderStatus status) {
+        return status == OrderStatus.CANCELLED ? "ORDER_CANCELLED" : "ORDER_STATUS_CHANGED";
+    }
+}
@@ -0,0 +1,95 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderPlacementResponse;
+import com.cargorent.dto.OrderResponseDto;
+import com.cargorent.dto.PlaceOrderRequest;
+import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
+import com.cargorent.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking holds: PENDING orders that keep their cars until the customer confirms them
+ * or the hold expires and the sweeper cancels it.
+ */
+@Component
+public class OrderHolds {
+
+    private final OrderRepository orderRepository;
+    private final OrderPlacement placement;
+    private final OrderReservations reservations;
+    private final OrderEvents events;
+    private final long holdMinutes;
+
+    public OrderHolds(OrderRepository orderRepository, OrderPlacement placement, OrderReservations reservations,
+            OrderEvents events, @Value("${cargorent.hold.minutes:15}") long holdMinutes) {
+        this.orderRepository = orderRepository;
+        this.placement = placement;
+        this.reservations = reservations;
+        this.events = events;
+        this.holdMinutes = holdMinutes;
+    }
+
+    @Transactional
+    public OrderPlacementResponse placeHold(PlaceOrderRequest request, Long customerId) {
+        return OrderPlacement.toPlacementResponse(placement.place(request, customerId, OrderStatus.PENDING,
+                LocalDateTime.now().plusMinutes(holdMinutes)));
+    }
+
+    @Transactional
+    public OrderResponseDto confirmHold(Long orderId, Long customerId) {
+
+        // Locking the row makes the sweeper skip this hold while it is being confirmed
+        Order order = orderRepository.findByIdWithLock(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        if (!order.getCustomer().getId().equals(customerId)) {
+            throw new BadRequestException("You can confirm only your own holds");
+        }
+
+        if (order.getStatus() != OrderStatus.PENDING) {
+            throw new BadRequestException("Order is not on hold");
+        }
+
+        if (!order.getHoldExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new BadRequestException("Hold has expired");
+        }
+
+        order.setStatus(OrderStatus.PLACED);
+        order.setHoldExpiresAt(null);
+        orderRepository.save(order);
+        events.record(order, "ORDER_STATUS_CHANGED");
+
+        return new OrderResponseDto(
+                order.getId(),
+                order.getTotalAmount(),
+                order.getStatus().name(),
+                order.getCreatedAt(),
+                order.getCustomer().getId(),
+                order.getCompany() != null ? order.getCompany().getId() : null,
+                order.getOwner() != null ? order.getOwner().getId() : null,
+                List.of());
+    }
+
+    // Claims one batch of expired holds and cancels it with set-based statements
+    @Transactional
+    public int releaseExpiredHolds(int batchSize) {
+        List<Long> orderIds = orderRepository.claimExpiredHolds(LocalDateTime.now(), batchSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        orderRepository.cancelHolds(orderIds);
+        reservations.releaseCars(orderIds);
+        events.recordStatusChanges(orderIds, OrderStatus.CANCELLED);
+
+        return orderIds.size();
+    }
+}
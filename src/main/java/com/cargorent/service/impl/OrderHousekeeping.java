@@ -0,0 +1,81 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@lombok.extern.slf4j.Slf4j
+public class OrderHousekeeping {
+
+    private final OrderService orderService;
+    private final OrderTickets orderTickets;
+    private final int holdSweepBatchSize;
+    private final int lifecycleBatchSize;
+
+    public OrderHousekeeping(OrderService orderService, OrderTickets orderTickets,
+            @Value("${cargorent.hold.sweep-batch-size:500}") int holdSweepBatchSize,
+            @Value("${cargorent.lifecycle.batch-size:500}") int lifecycleBatchSize) {
+        this.orderService = orderService;
+        this.orderTickets = orderTickets;
+        this.holdSweepBatchSize = holdSweepBatchSize;
+        this.lifecycleBatchSize = lifecycleBatchSize;
+    }
+
+    // ================= IDEMPOTENCY KEYS =================
+    @Scheduled(fixedDelayString = "${cargorent.idempotency.purge-interval-ms:600000}")
+    public void purgeExpiredIdempotencyKeys() {
+        int purged = orderService.purgeExpiredIdempotencyKeys();
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // ================= ORDER TICKETS =================
+    @Scheduled(fixedDelayString = "${cargorent.order-intake.purge-interval-ms:600000}")
+    public void purgeFinishedOrderTickets() {
+        int purged = orderTickets.purgeFinished();
+        if (purged > 0) {
+            log.info("Purged {} finished order tickets", purged);
+        }
+    }
+
+    // ================= BOOKING HOLDS =================
+    // Each batch commits on its own, so locks are short and other nodes can claim in parallel
+    @Scheduled(fixedDelayString = "${cargorent.hold.sweep-interval-ms:15000}")
+    public void releaseExpiredHolds() {
+        int released = 0;
+        int batch;
+        do {
+            batch = orderService.releaseExpiredHolds(holdSweepBatchSize);
+            released += batch;
+        } while (batch == holdSweepBatchSize);
+
+        if (released > 0) {
+            log.info("Released {} expired booking holds", released);
+        }
+    }
+
+    // ================= ORDER LIFECYCLE =================
+    // CONFIRMED orders start on their first rental day; ACTIVE ones end after their last
+    @Scheduled(fixedDelayString = "${cargorent.lifecycle.interval-ms:60000}")
+    public void advanceOrderLifecycle() {
+        int activated = advance(OrderStatus.CONFIRMED, OrderStatus.ACTIVE);
+        int completed = advance(OrderStatus.ACTIVE, OrderStatus.COMPLETED);
+
+        if (activated > 0 || completed > 0) {
+            log.info("Order lifecycle: {} activated, {} completed", activated, completed);
+        }
+    }
+
+    private int advance(OrderStatus from, OrderStatus to) {
+        int advanced = 0;
+        String leaseOwner;
+        while ((leaseOwner = orderService.claimLifecycleBatch(from, lifecycleBatchSize)) != null) {
+            advanced += orderService.advanceLifecycleBatch(leaseOwner, from, to);
+        }
+        return advanced;
+    }
+}
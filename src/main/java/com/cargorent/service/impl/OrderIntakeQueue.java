@@ -0,0 +1,239 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.BulkOrderResponse;
+import com.cargorent.dto.OrderTicketResponse;
+import com.cargorent.dto.PlaceOrderRequest;
+import com.cargorent.entity.OrderTicket;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.DuplicateRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
+import com.cargorent.exception.ServiceUnavailableException;
+import com.cargorent.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Accepts orders as durable tickets and places them on a small worker pool, so
+ * request threads return straight away instead of waiting on car locks. Workers on
+ * every node claim tickets in batches; a customer's queued orders in one batch are
+ * placed in a single transaction.
+ */
+@Component
+@lombok.extern.slf4j.Slf4j
+public class OrderIntakeQueue {
+
+    private final OrderTickets tickets;
+    private final OrderService orderService;
+    private final ThreadPoolExecutor workers;
+    private final int workerCount;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long drainTimeoutSeconds;
+
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+    private volatile boolean accepting = true;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final LongAccumulator maxWaitMs = new LongAccumulator(Math::max, 0);
+
+    public OrderIntakeQueue(OrderTickets tickets, OrderService orderService,
+            @Value("${cargorent.order-intake.workers:4}") int workerCount,
+            @Value("${cargorent.order-intake.queue-capacity:1000}") int queueCapacity,
+            @Value("${cargorent.order-intake.batch-size:50}") int batchSize,
+            @Value("${cargorent.order-intake.drain-timeout-seconds:30}") long drainTimeoutSeconds) {
+        this.tickets = tickets;
+        this.orderService = orderService;
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public OrderTicketResponse submit(PlaceOrderRequest request, Long customerId, String idempotencyKey) {
+        // Only checks that need no database; everything else is reported on the ticket
+        if (request.getCompanyId() == null && request.getOwnerId() == null) {
+            throw new BadRequestException("Either Company ID or Owner ID must be provided");
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+            throw new BadRequestException("Idempotency-Key must be between 1 and 100 characters");
+        }
+        OrderReservations.validateItemDates(request.getItems());
+
+        if (!accepting) {
+            throw new ServiceUnavailableException("Order intake is shutting down, please retry shortly");
+        }
+        // The backlog is shared by every node, so the limit is too
+        if (tickets.countQueued() >= queueCapacity) {
+            rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Order intake is busy, please retry shortly");
+        }
+
+        OrderTicket ticket = tickets.create(request, customerId, idempotencyKey);
+        accepted.incrementAndGet();
+        signal();
+        return toResponse(ticket);
+    }
+
+    public OrderTicketResponse getTicket(String ticketId, Long customerId) {
+        return tickets.find(ticketId, customerId)
+                .map(OrderIntakeQueue::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Order ticket not found"));
+    }
+
+    // Picks up tickets nobody was signalled for: ones accepted while every worker was
+    // busy, and ones left behind by a node that stopped before finishing them
+    @Scheduled(fixedDelayString = "${cargorent.order-intake.sweep-interval-ms:5000}")
+    public void sweep() {
+        signal();
+    }
+
+    // At most one pending drain per worker; a running drain keeps claiming until the table is empty
+    private void signal() {
+        if (!accepting) {
+            return;
+        }
+        if (pendingDrains.incrementAndGet() > workerCount) {
+            pendingDrains.decrementAndGet();
+            return;
+        }
+        try {
+            workers.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            pendingDrains.decrementAndGet();
+        }
+    }
+
+    private void drain() {
+        try {
+            List<OrderTicket> batch;
+            while (accepting && !(batch = tickets.claim(batchSize)).isEmpty()) {
+                process(batch);
+            }
+        } catch (Exception ex) {
+            log.error("Order intake drain failed", ex);
+        } finally {
+            pendingDrains.decrementAndGet();
+        }
+    }
+
+    // Tickets with an Idempotency-Key go one by one through the keyed path; the rest
+    // are grouped per customer and placed through the bulk path
+    private void process(List<OrderTicket> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<OrderTicket>> groups = new LinkedHashMap<>();
+        for (OrderTicket ticket : batch) {
+            long waitMs = Duration.between(ticket.getSubmittedAt(), now).toMillis();
+            started.incrementAndGet();
+            totalWaitMs.addAndGet(waitMs);
+            maxWaitMs.accumulate(waitMs);
+
+            if (ticket.getIdempotencyKey() != null) {
+                placeOne(ticket);
+            } else {
+                groups.computeIfAbsent(ticket.getCustomerId(), id -> new ArrayList<>()).add(ticket);
+            }
+        }
+
+        groups.forEach((customerId, group) -> {
+            if (group.size() == 1) {
+                placeOne(group.get(0));
+            } else {
+                placeGroup(customerId, group);
+            }
+        });
+    }
+
+    private void placeGroup(Long customerId, List<OrderTicket> group) {
+        try {
+            BulkOrderResponse response = tickets.placeGroup(customerId, group);
+            placed.addAndGet(response.getPlaced());
+            failed.addAndGet(response.getFailed());
+        } catch (Exception ex) {
+            // Something failed the whole group, such as the customer lookup; each ticket gets its own outcome
+            group.forEach(this::placeOne);
+        }
+    }
+
+    private void placeOne(OrderTicket ticket) {
+        try {
+            tickets.placeOne(ticket);
+            placed.incrementAndGet();
+        } catch (DuplicateRequestException ex) {
+            orderService.findOrderByIdempotencyKey(ticket.getCustomerId(), ticket.getIdempotencyKey())
+                    .ifPresentOrElse(order -> {
+                        tickets.complete(ticket, order.getOrderId());
+                        placed.incrementAndGet();
+                    }, () -> {
+                        tickets.fail(ticket, ex.getMessage());
+                        failed.incrementAndGet();
+                    });
+        } catch (BadRequestException | ResourceNotFoundException ex) {
+            tickets.fail(ticket, ex.getMessage());
+            failed.incrementAndGet();
+        } catch (Exception ex) {
+            log.error("Queued order {} failed", ticket.getId(), ex);
+            tickets.fail(ticket, "Order could not be placed");
+            failed.incrementAndGet();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", tickets.countQueued());
+        stats.put("activeWorkers", (long) workers.getActiveCount());
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("placed", placed.get());
+        stats.put("failed", failed.get());
+        stats.put("avgWaitMs", started.get() == 0 ? 0 : totalWaitMs.get() / started.get());
+        stats.put("maxWaitMs", maxWaitMs.get());
+        return stats;
+    }
+
+    // Stops claiming and lets claimed batches finish; queued tickets stay in the table
+    // for the other nodes, or for this one after a restart
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(drainTimeoutSeconds, TimeUnit.SECONDS)) {
+            log.warn("Order intake did not drain within {}s; unfinished tickets are retried once their lease expires",
+                    drainTimeoutSeconds);
+        }
+    }
+
+    private static OrderTicketResponse toResponse(OrderTicket ticket) {
+        return new OrderTicketResponse(ticket.getId(), ticket.getStatus().name(), ticket.getOrderId(),
+                ticket.getError(), ticket.getSubmittedAt());
+    }
+}
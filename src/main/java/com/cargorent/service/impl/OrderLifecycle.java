@@ -0,0 +1,68 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Date-driven status steps (CONFIRMED to ACTIVE, ACTIVE to COMPLETED), claimed in leased
+ * batches so several nodes can run them at once.
+ */
+@Component
+public class OrderLifecycle {
+
+    private final OrderRepository orderRepository;
+    private final OrderReservations reservations;
+    private final OrderEvents events;
+    private final long leaseSeconds;
+
+    public OrderLifecycle(OrderRepository orderRepository, OrderReservations reservations, OrderEvents events,
+            @Value("${cargorent.lifecycle.lease-seconds:120}") long leaseSeconds) {
+        this.orderRepository = orderRepository;
+        this.reservations = reservations;
+        this.events = events;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    // Claims commit on their own, so other nodes skip the leased rows until the lease runs out
+    @Transactional
+    public String claimBatch(OrderStatus from, int batchSize) {
+        String leaseOwner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+
+        int claimed = switch (from) {
+            case CONFIRMED -> orderRepository.claimStarted(leaseOwner, leaseUntil, LocalDate.now(), now, batchSize);
+            case ACTIVE -> orderRepository.claimEnded(leaseOwner, leaseUntil, LocalDate.now(), now, batchSize);
+            default -> throw new IllegalArgumentException("No lifecycle step starts at " + from);
+        };
+        return claimed > 0 ? leaseOwner : null;
+    }
+
+    // Orders cancelled or otherwise moved on since the claim are left out by the status
+    // check, so only the rows the update changed get their cars released and an event
+    @Transactional
+    public int advanceBatch(String leaseOwner, OrderStatus from, OrderStatus to) {
+        String advancedBy = UUID.randomUUID().toString();
+        int advanced = orderRepository.advanceClaimed(leaseOwner, advancedBy, from, to);
+        orderRepository.releaseClaim(leaseOwner);
+        if (advanced == 0) {
+            return 0;
+        }
+
+        List<Long> orderIds = orderRepository.findClaimedIds(advancedBy, to);
+        orderRepository.releaseClaim(advancedBy);
+        if (!OrderStatus.OCCUPYING.contains(to)) {
+            reservations.releaseCars(orderIds);
+        }
+        events.recordStatusChanges(orderIds, to);
+        return orderIds.size();
+    }
+}
@@ -0,0 +1,172 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.dto.OrderPlacementResponse;
+import com.cargorent.dto.PlaceOrderRequest;
+import com.cargorent.entity.Car;
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderItem;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.entity.Role;
+import com.cargorent.entity.User;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
+import com.cargorent.repository.CompanyRepository;
+import com.cargorent.repository.OrderRepository;
+import com.cargorent.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds, prices and saves a single order with its day slots. Shared by direct
+ * placement and booking holds; runs inside the caller's transaction.
+ */
+@Component
+public class OrderPlacement {
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final OrderReservations reservations;
+    private final OrderEvents events;
+
+    public OrderPlacement(OrderRepository orderRepository, UserRepository userRepository,
+            CompanyRepository companyRepository, OrderReservations reservations, OrderEvents events) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.companyRepository = companyRepository;
+        this.reservations = reservations;
+        this.events = events;
+    }
+
+    Order place(PlaceOrderRequest request, Long customerId, OrderStatus status, LocalDateTime holdExpiresAt) {
+
+        User customer = loadCustomer(customerId);
+
+        Company company = null;
+        User owner = null;
+
+        if (request.getCompanyId() != null) {
+            company = companyRepository.findById(request.getCompanyId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
+        } else if (request.getOwnerId() != null) {
+            owner = userRepository.findById(request.getOwnerId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Owner not found"));
+        } else {
+            throw new BadRequestException("Either Company ID or Owner ID must be provided");
+        }
+
+        List<OrderItemRequest> itemRequests = request.getItems();
+        OrderReservations.validateItemDates(itemRequests);
+
+        Set<Long> carIds = new TreeSet<>();
+        itemRequests.forEach(item -> carIds.add(item.getCarId()));
+        Map<Long, Car> carsById = reservations.loadCars(carIds);
+
+        OrderReservations.checkCarsBelongTo(itemRequests, carsById, company, request.getOwnerId());
+        OrderReservations.checkNoOverlapWithinRequest(itemRequests, carsById);
+        if (reservations.mode() == ReservationMode.ROW_LOCK) {
+            OrderReservations.checkNoExistingBookings(itemRequests, carsById,
+                    reservations.loadBookings(carIds, itemRequests));
+        }
+
+        Order order = buildOrder(customer, company, owner, status, holdExpiresAt, itemRequests, carsById);
+
+        // Pooled ids mean nothing is written until the flush below, which sends the
+        // order, its items (cascaded) and the day slots as batched inserts
+        orderRepository.save(order);
+        reservations.reserveBookingDays(List.of(order));
+
+        reservations.bookAfterCommit(List.of(order));
+        events.record(order, status == OrderStatus.PENDING ? "ORDER_HELD" : "ORDER_PLACED");
+
+        return order;
+    }
+
+    User loadCustomer(Long customerId) {
+        User customer = userRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
+
+        if (customer.getRole() != Role.CUSTOMER) {
+            throw new BadRequestException("Only customers can place orders");
+        }
+        return customer;
+    }
+
+    static Order buildOrder(User customer, Company company, User owner, OrderStatus status,
+            LocalDateTime holdExpiresAt, List<OrderItemRequest> itemRequests, Map<Long, Car> carsById) {
+
+        Order order = Order.builder()
+                .customer(customer)
+                .company(company)
+                .owner(owner)
+                .status(status)
+                .holdExpiresAt(holdExpiresAt)
+                .totalAmount(0.0)
+                .build();
+
+        double totalAmount = 0.0;
+        List<OrderItem> orderItems = new ArrayList<>();
+
+        for (OrderItemRequest itemRequest : itemRequests) {
+            Car car = carsById.get(itemRequest.getCarId());
+
+            long days = rentalDays(itemRequest.getStartDate(), itemRequest.getEndDate());
+            double price = car.getPricePerDay() * days;
+            totalAmount += price;
+
+            OrderItem orderItem = OrderItem.builder()
+                    .order(order)
+                    .car(car)
+                    .startDate(itemRequest.getStartDate())
+                    .endDate(itemRequest.getEndDate())
+                    .numberOfDays((int) days)
+                    .price(price)
+                    .build();
+
+            orderItems.add(orderItem);
+        }
+
+        order.setTotalAmount(totalAmount);
+        order.setOrderItems(orderItems);
+        order.setStartDate(itemRequests.stream().map(OrderItemRequest::getStartDate).min(LocalDate::compareTo).get());
+        order.setEndDate(itemRequests.stream().map(OrderItemRequest::getEndDate).max(LocalDate::compareTo).get());
+        return order;
+    }
+
+    // Inclusive of both ends, so a same-day rental counts as one day
+    static long rentalDays(LocalDate startDate, LocalDate endDate) {
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        return days <= 0 ? 1 : days;
+    }
+
+    // Built from the graph placement already holds, so nothing lazy is touched
+    static OrderPlacementResponse toPlacementResponse(Order order) {
+        return new OrderPlacementResponse(
+                order.getId(),
+                order.getStatus().name(),
+                order.getTotalAmount(),
+                order.getCreatedAt(),
+                order.getHoldExpiresAt(),
+                order.getCompany() != null ? order.getCompany().getId() : null,
+                order.getOwner() != null ? order.getOwner().getId() : null,
+                order.getOrderItems().stream()
+                        .map(item -> new OrderPlacementResponse.Item(
+                                item.getCar().getId(),
+                                item.getCar().getModel(),
+                                item.getStartDate(),
+                                item.getEndDate(),
+                                item.getNumberOfDays(),
+                                item.getPrice()))
+                        .toList());
+    }
+}
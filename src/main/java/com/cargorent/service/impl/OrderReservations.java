@@ -0,0 +1,223 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.entity.Car;
+import com.cargorent.entity.CarBookingDay;
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Order;
+import com.cargorent.entity.OrderItem;
+import com.cargorent.entity.OrderStatus;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.ResourceNotFoundException;
+import com.cargorent.repository.CarBookingDayRepository;
+import com.cargorent.repository.CarRepository;
+import com.cargorent.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The cars and day slots orders hold: request checks, car locks, existing bookings,
+ * slot claims and releasing everything when an order stops occupying its cars.
+ * Runs inside the caller's transaction.
+ */
+@Component
+public class OrderReservations {
+
+    private final CarRepository carRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CarBookingDayRepository carBookingDayRepository;
+    private final CarAvailabilityIndex carAvailabilityIndex;
+    private final CarCatalogCache carCatalogCache;
+    private final ReservationMode reservationMode;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderReservations(CarRepository carRepository, OrderItemRepository orderItemRepository,
+            CarBookingDayRepository carBookingDayRepository, CarAvailabilityIndex carAvailabilityIndex,
+            CarCatalogCache carCatalogCache,
+            @Value("${cargorent.reservation.mode:ROW_LOCK}") ReservationMode reservationMode,
+            JdbcTemplate jdbcTemplate) {
+        this.carRepository = carRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.carBookingDayRepository = carBookingDayRepository;
+        this.carAvailabilityIndex = carAvailabilityIndex;
+        this.carCatalogCache = carCatalogCache;
+        this.reservationMode = reservationMode;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public ReservationMode mode() {
+        return reservationMode;
+    }
+
+    // ================= REQUEST CHECKS =================
+    static void validateItemDates(List<OrderItemRequest> itemRequests) {
+        LocalDate today = LocalDate.now();
+        for (OrderItemRequest itemRequest : itemRequests) {
+            if (itemRequest.getStartDate().isAfter(itemRequest.getEndDate())) {
+                throw new BadRequestException("Start date must be before or equal to end date");
+            }
+
+            if (itemRequest.getStartDate().isBefore(today)) {
+                throw new BadRequestException("Cannot book in the past");
+            }
+        }
+    }
+
+    // Validation: Car must belong to the selected Company OR Owner
+    static void checkCarsBelongTo(List<OrderItemRequest> itemRequests, Map<Long, Car> carsById,
+            Company company, Long ownerId) {
+        for (OrderItemRequest itemRequest : itemRequests) {
+            Car car = carsById.get(itemRequest.getCarId());
+            if (car == null) {
+                throw new ResourceNotFoundException("Car not found");
+            }
+
+            if (company != null) {
+                if (car.getCompany() == null || !car.getCompany().getId().equals(company.getId())) {
+                    throw new BadRequestException("Car " + car.getModel() + " does not belong to the selected company");
+                }
+            } else {
+                // Member Car validation
+                if (car.getOwner() == null || !car.getOwner().getId().equals(ownerId)) {
+                    throw new BadRequestException("Car " + car.getModel() + " does not belong to the selected owner");
+                }
+            }
+        }
+    }
+
+    // Two items of the same request must not book one car for overlapping dates
+    static void checkNoOverlapWithinRequest(List<OrderItemRequest> itemRequests, Map<Long, Car> carsById) {
+        Map<Long, List<OrderItemRequest>> itemsByCar = new HashMap<>();
+        itemRequests.forEach(item -> itemsByCar.computeIfAbsent(item.getCarId(), id -> new ArrayList<>()).add(item));
+
+        for (List<OrderItemRequest> items : itemsByCar.values()) {
+            if (items.size() < 2) {
+                continue;
+            }
+            items.sort(Comparator.comparing(OrderItemRequest::getStartDate));
+            for (int i = 1; i < items.size(); i++) {
+                if (!items.get(i).getStartDate().isAfter(items.get(i - 1).getEndDate())) {
+                    Car car = carsById.get(items.get(i).getCarId());
+                    throw new BadRequestException(
+                            "Car " + car.getModel() + " is booked more than once for overlapping dates");
+                }
+            }
+        }
+    }
+
+    static void checkNoExistingBookings(List<OrderItemRequest> itemRequests, Map<Long, Car> carsById,
+            Map<Long, List<LocalDate[]>> bookingsByCar) {
+        for (OrderItemRequest itemRequest : itemRequests) {
+            for (LocalDate[] booking : bookingsByCar.getOrDefault(itemRequest.getCarId(), List.of())) {
+                if (overlaps(itemRequest.getStartDate(), itemRequest.getEndDate(), booking[0], booking[1])) {
+                    throw new BadRequestException(
+                            "Car " + carsById.get(itemRequest.getCarId()).getModel()
+                                    + " is already booked for the selected dates");
+                }
+            }
+        }
+    }
+
+    static boolean overlaps(LocalDate start, LocalDate end, LocalDate otherStart, LocalDate otherEnd) {
+        return !start.isAfter(otherEnd) && !end.isBefore(otherStart);
+    }
+
+    // ================= CARS AND BOOKINGS =================
+    // ROW_LOCK locks every requested car in one statement, always in id order, so concurrent
+    // multi-car orders cannot deadlock on each other. SLOTS leaves conflicts to the slot insert.
+    Map<Long, Car> loadCars(Set<Long> carIds) {
+        Map<Long, Car> carsById = new HashMap<>();
+        List<Car> cars = reservationMode == ReservationMode.SLOTS
+                ? carRepository.findAllById(carIds)
+                : carRepository.findAllByIdInWithLock(carIds);
+        cars.forEach(car -> carsById.put(car.getId(), car));
+        return carsById;
+    }
+
+    // One query for every requested car; the per-item ranges are then compared in memory
+    Map<Long, List<LocalDate[]>> loadBookings(Set<Long> carIds, List<OrderItemRequest> itemRequests) {
+        LocalDate from = itemRequests.stream().map(OrderItemRequest::getStartDate).min(LocalDate::compareTo).get();
+        LocalDate to = itemRequests.stream().map(OrderItemRequest::getEndDate).max(LocalDate::compareTo).get();
+
+        Map<Long, List<LocalDate[]>> bookingsByCar = new HashMap<>();
+        for (Object[] row : orderItemRepository.findBookingsOverlapping(carIds, OrderStatus.OCCUPYING, from, to)) {
+            bookingsByCar.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new LocalDate[] { (LocalDate) row[1], (LocalDate) row[2] });
+        }
+        return bookingsByCar;
+    }
+
+    // ================= DAY SLOTS =================
+    // One slot per car per day; a day some other order already holds violates the primary key
+    void reserveBookingDays(List<Order> orders) {
+        List<CarBookingDay> days = new ArrayList<>();
+        for (Order order : orders) {
+            for (OrderItem item : order.getOrderItems()) {
+                for (LocalDate day = item.getStartDate(); !day.isAfter(item.getEndDate()); day = day.plusDays(1)) {
+                    days.add(new CarBookingDay(item.getCar().getId(), day, order.getId()));
+                }
+            }
+        }
+
+        try {
+            carBookingDayRepository.saveAllAndFlush(days);
+        } catch (DataIntegrityViolationException ex) {
+            throw new BadRequestException("One or more cars are already booked for the selected dates");
+        }
+    }
+
+    // Claims one order's slots on its own, for callers that must survive a conflict. The rows
+    // go through JDBC under a savepoint rather than the session, which a failed flush would
+    // leave unusable, so a duplicate key undoes just these rows.
+    boolean claimBookingDays(Order order) {
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            for (LocalDate day = item.getStartDate(); !day.isAfter(item.getEndDate()); day = day.plusDays(1)) {
+                rows.add(new Object[] { item.getCar().getId(), day, order.getId() });
+            }
+        }
+
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                jdbcTemplate.batchUpdate("INSERT INTO car_booking_days (car_id, booking_day, order_id) "
+                        + "VALUES (?, ?, ?)", rows);
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (DataIntegrityViolationException ex) {
+                connection.rollback(savepoint);
+                return false;
+            }
+        }));
+    }
+
+    // Placed orders show up in search and the catalog once they commit
+    void bookAfterCommit(List<Order> orders) {
+        orders.forEach(order -> carAvailabilityIndex.bookAfterCommit(order.getId(), order.getOrderItems()));
+    }
+
+    // Orders no longer hold their cars: drop their day slots, mark the cars available in
+    // one statement and release them from the search index and catalog cache
+    void releaseCars(List<Long> orderIds) {
+        List<Long> carIds = orderItemRepository.findCarIdsByOrderIds(orderIds);
+
+        carBookingDayRepository.deleteByOrderIdIn(orderIds);
+        if (!carIds.isEmpty()) {
+            carRepository.markAvailable(carIds);
+            carCatalogCache.evictCarsAfterCommit(carIds);
+        }
+        orderIds.forEach(carAvailabilityIndex::releaseAfterCommit);
+    }
+}
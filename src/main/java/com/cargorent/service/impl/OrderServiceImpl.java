@@ -1,42 +1,77 @@
 package com.cargorent.service.impl;
 
-import com.cargorent.dto.OrderItemRequest;
+import com.cargorent.dto.BulkOrderResponse;
+import com.cargorent.dto.BulkStatusUpdateResponse;
+import com.cargorent.dto.CursorPageResponse;
+import com.cargorent.dto.OrderItemResponseDto;
+import com.cargorent.dto.OrderPlacementResponse;
 import com.cargorent.dto.OrderResponseDto;
 import com.cargorent.dto.PlaceOrderRequest;
 import com.cargorent.entity.*;
 import com.cargorent.exception.BadRequestException;
+import com.cargorent.exception.DuplicateRequestException;
 import com.cargorent.exception.ResourceNotFoundException;
 import com.cargorent.repository.*;
 import com.cargorent.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
-    private final UserRepository userRepository;
-    private final CompanyRepository companyRepository;
-    private final CarRepository carRepository;
     private final RatingRepository ratingRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final long idempotencyKeyTtlHours;
+    private final OrderPlacement placement;
+    private final OrderReservations reservations;
+    private final OrderEvents events;
+    private final BulkOrderPlacement bulkOrderPlacement;
+    private final OrderHolds orderHolds;
+    private final OrderLifecycle orderLifecycle;
 
     public OrderServiceImpl(
             OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
-            UserRepository userRepository,
-            CompanyRepository companyRepository,
-            CarRepository carRepository,
-            RatingRepository ratingRepository) {
+            RatingRepository ratingRepository,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            @Value("${cargorent.idempotency.ttl-hours:24}") long idempotencyKeyTtlHours,
+            OrderPlacement placement,
+            OrderReservations reservations,
+            OrderEvents events,
+            BulkOrderPlacement bulkOrderPlacement,
+            OrderHolds orderHolds,
+            OrderLifecycle orderLifecycle) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
-        this.userRepository = userRepository;
-        this.companyRepository = companyRepository;
-        this.carRepository = carRepository;
         this.ratingRepository = ratingRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyKeyTtlHours = idempotencyKeyTtlHours;
+        this.placement = placement;
+        this.reservations = reservations;
+        this.events = events;
+        this.bulkOrderPlacement = bulkOrderPlacement;
+        this.orderHolds = orderHolds;
+        this.orderLifecycle = orderLifecycle;
     }
     // ... (Constructor is actually at top, I need to match carefully or use
     // separate ReplaceChunk)
@@ -46,140 +81,185 @@ public class OrderServiceImpl implements OrderService {
     // ================= PLACE ORDER =================
     @Override
     @Transactional
-    public Order placeOrder(PlaceOrderRequest request, Long customerId) {
+    public OrderPlacementResponse placeOrder(PlaceOrderRequest request, Long customerId, String idempotencyKey) {
 
-        User customer = userRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
+        IdempotencyKey claimedKey = idempotencyKey != null ? claimIdempotencyKey(customerId, idempotencyKey) : null;
 
-        if (customer.getRole() != Role.CUSTOMER) {
-            throw new BadRequestException("Only customers can place orders");
-        }
+        Order order = placement.place(request, customerId, OrderStatus.PLACED, null);
 
-        Company company = null;
-        User owner = null;
-
-        if (request.getCompanyId() != null) {
-            company = companyRepository.findById(request.getCompanyId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-        } else if (request.getOwnerId() != null) {
-            owner = userRepository.findById(request.getOwnerId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Owner not found"));
-        } else {
-            throw new BadRequestException("Either Company ID or Owner ID must be provided");
+        if (claimedKey != null) {
+            claimedKey.setOrderId(order.getId());
         }
 
-        Order order = Order.builder()
-                .customer(customer)
-                .company(company)
-                .owner(owner)
-                .status(OrderStatus.PLACED)
-                .totalAmount(0.0)
-                .build();
-
-        orderRepository.save(order);
-
-        double totalAmount = 0.0;
-        List<OrderItem> orderItems = new ArrayList<>();
-
-        for (OrderItemRequest itemRequest : request.getItems()) {
-
-            // Use Lock for strict availability check
-            Car car = carRepository.findByIdWithLock(itemRequest.getCarId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Car not found"));
-
-            // Validation: Car must belong to the selected Company OR Owner
-            if (company != null) {
-                if (car.getCompany() == null || !car.getCompany().getId().equals(company.getId())) {
-                    throw new BadRequestException("Car " + car.getModel() + " does not belong to the selected company");
-                }
-            } else {
-                // Member Car validation
-                if (car.getOwner() == null || !car.getOwner().getId().equals(request.getOwnerId())) {
-                    throw new BadRequestException("Car " + car.getModel() + " does not belong to the selected owner");
-                }
-            }
-
-            // Date Validation
-            if (itemRequest.getStartDate().isAfter(itemRequest.getEndDate())) {
-                throw new BadRequestException("Start date must be before or equal to end date");
-            }
-
-            if (itemRequest.getStartDate().isBefore(java.time.LocalDate.now())) {
-                throw new BadRequestException("Cannot book in the past");
-            }
-
-            // Overlap Validation
-            boolean hasOverlap = carRepository.existsOverlappingBookings(
-                    car.getId(), itemRequest.getStartDate(), itemRequest.getEndDate());
-
-            if (hasOverlap) {
-                throw new BadRequestException(
-                        "Car " + car.getModel() + " is already booked for the selected dates");
-            }
+        return OrderPlacement.toPlacementResponse(order);
+    }
 
-            // Calculate days (Inclusive)
-            long days = java.time.temporal.ChronoUnit.DAYS.between(
-                    itemRequest.getStartDate(), itemRequest.getEndDate()) + 1;
+    // Inserted before any car is touched. A concurrent duplicate blocks on the unique
+    // index until this transaction ends, then fails here once the key is committed.
+    private IdempotencyKey claimIdempotencyKey(Long customerId, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 100) {
+            throw new BadRequestException("Idempotency-Key must be between 1 and 100 characters");
+        }
 
-            if (days <= 0)
-                days = 1;
+        try {
+            return idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                    .customerId(customerId)
+                    .idempotencyKey(idempotencyKey)
+                    .build());
+        } catch (DataIntegrityViolationException ex) {
+            throw new DuplicateRequestException("An order was already placed with this Idempotency-Key");
+        }
+    }
 
-            double price = car.getPricePerDay() * days;
-            totalAmount += price;
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderPlacementResponse> findOrderByIdempotencyKey(Long customerId,
+            String idempotencyKey) {
+        return idempotencyKeyRepository.findByCustomerIdAndIdempotencyKey(customerId, idempotencyKey)
+                .map(IdempotencyKey::getOrderId)
+                .flatMap(orderRepository::findOrderWithDetails)
+                .map(OrderPlacement::toPlacementResponse);
+    }
 
-            OrderItem orderItem = OrderItem.builder()
-                    .order(order)
-                    .car(car)
-                    .startDate(itemRequest.getStartDate())
-                    .endDate(itemRequest.getEndDate())
-                    .numberOfDays((int) days)
-                    .price(price)
-                    .build();
+    @Override
+    @Transactional
+    public int purgeExpiredIdempotencyKeys() {
+        return idempotencyKeyRepository.deleteCreatedBefore(
+                LocalDateTime.now().minusHours(idempotencyKeyTtlHours));
+    }
 
-            orderItems.add(orderItem);
-        }
+    // ================= BULK ORDERS =================
+    @Override
+    public BulkOrderResponse placeOrders(List<PlaceOrderRequest> requests, Long customerId) {
+        return bulkOrderPlacement.placeOrders(requests, customerId);
+    }
 
-        orderItemRepository.saveAll(orderItems);
+    // ================= BOOKING HOLDS =================
+    @Override
+    public OrderPlacementResponse placeHold(PlaceOrderRequest request, Long customerId) {
+        return orderHolds.placeHold(request, customerId);
+    }
 
-        order.setTotalAmount(totalAmount);
-        order.setOrderItems(orderItems);
+    @Override
+    public OrderResponseDto confirmHold(Long orderId, Long customerId) {
+        return orderHolds.confirmHold(orderId, customerId);
+    }
 
-        return orderRepository.save(order);
+    @Override
+    public int releaseExpiredHolds(int batchSize) {
+        return orderHolds.releaseExpiredHolds(batchSize);
     }
 
     // ================= COMPANY DASHBOARD =================
     @Override
     @Transactional(readOnly = true)
     public List<OrderResponseDto> getOrdersByCompany(Long companyId) {
-        return mapToOrderResponse(orderRepository.findOrdersByCompany(companyId));
+        return mapToOrderSummaries(orderRepository.findOrdersByCompany(companyId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponseDto> getOrdersByCompanyUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public CursorPageResponse<OrderResponseDto> getOrdersByCompanyPage(Long companyId, String status,
+            LocalDate createdFrom, LocalDate createdTo, String cursor, int limit) {
+        validatePageSize(limit);
+        OrderCursor after = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findCompanyOrdersPage(companyId,
+                status != null ? parseStatus(status) : null,
+                createdFrom != null ? createdFrom.atStartOfDay() : null,
+                createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, limit + 1)), limit);
+    }
 
-        Company company = companyRepository.findByUser(user)
-                .orElseThrow(() -> new BadRequestException("User does not have a company profile"));
+    private void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 
-        return mapToOrderResponse(orderRepository.findOrdersByCompany(company.getId()));
+    // One extra row was fetched to tell whether another page exists
+    private CursorPageResponse<OrderResponseDto> toPage(List<Order> orders, int limit) {
+        boolean hasMore = orders.size() > limit;
+        List<Order> page = hasMore ? orders.subList(0, limit) : orders;
+        Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return new CursorPageResponse<>(mapToOrderResponse(page),
+                hasMore ? new OrderCursor(last.getCreatedAt(), last.getId()).encode() : null);
     }
 
+    // Opaque to clients: base64url of "createdAt|id" of the last order on the page
+    record OrderCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static OrderCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+                        StandardCharsets.UTF_8).split("\\|");
+                return new OrderCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+
+    // Items and rated flags for a whole page come from two queries
     private List<OrderResponseDto> mapToOrderResponse(List<Order> orders) {
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+
+        Map<Long, Set<Long>> ratedCarsByOrder = new HashMap<>();
+        Map<Long, List<OrderItemResponseDto>> itemsByOrder = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (Object[] row : ratingRepository.findRatedCarIdsByOrderIds(orderIds)) {
+                ratedCarsByOrder.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+            }
+
+            for (OrderItem item : orderItemRepository.findWithCarByOrderIds(orderIds)) {
+                Long orderId = item.getOrder().getId();
+                itemsByOrder.computeIfAbsent(orderId, id -> new ArrayList<>())
+                        .add(toItemResponse(item, ratedCarsByOrder.getOrDefault(orderId, Set.of())));
+            }
+        }
+
+        return orders.stream()
+                .map(order -> toOrderResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
+    // The unpaged lists have no upper bound, so they stay light and skip the items
+    private static List<OrderResponseDto> mapToOrderSummaries(List<Order> orders) {
         return orders.stream()
-                .map(order -> new OrderResponseDto(
-                        order.getId(),
-                        order.getTotalAmount(),
-                        order.getStatus().name(),
-                        order.getCreatedAt(),
-                        order.getCustomer().getId(),
-                        order.getCompany() != null ? order.getCompany().getId() : null,
-                        order.getOwner() != null ? order.getOwner().getId() : null,
-                        List.of())) // Items could be populated if needed, keeping light for list
+                .map(order -> toOrderResponse(order, List.of()))
                 .toList();
     }
 
+    private static OrderResponseDto toOrderResponse(Order order, List<OrderItemResponseDto> items) {
+        return new OrderResponseDto(
+                order.getId(),
+                order.getTotalAmount(),
+                order.getStatus().name(),
+                order.getCreatedAt(),
+                order.getCustomer().getId(),
+                order.getCompany() != null ? order.getCompany().getId() : null,
+                order.getOwner() != null ? order.getOwner().getId() : null,
+                items);
+    }
+
+    private static OrderItemResponseDto toItemResponse(OrderItem item, Set<Long> ratedCarIds) {
+        return new OrderItemResponseDto(
+                item.getCar().getId(),
+                item.getCar().getModel(),
+                item.getNumberOfDays(),
+                item.getPrice(),
+                ratedCarIds.contains(item.getCar().getId()));
+    }
+
     // ================= CANCEL ORDER =================
     @Override
     @Transactional
@@ -192,19 +272,15 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("You can cancel only your own orders");
         }
 
-        if (order.getStatus() != OrderStatus.PLACED) {
+        // Customers can only back out before the company has confirmed
+        if (order.getStatus() != OrderStatus.PLACED && order.getStatus() != OrderStatus.PENDING) {
             throw new BadRequestException("Order cannot be cancelled at this stage");
         }
 
         order.setStatus(OrderStatus.CANCELLED);
-
-        order.getOrderItems().forEach(item -> {
-            Car car = item.getCar();
-            car.setAvailability(true);
-            carRepository.save(car);
-        });
-
         orderRepository.save(order);
+        reservations.releaseCars(List.of(order.getId()));
+        events.record(order, "ORDER_CANCELLED");
 
         return new OrderResponseDto(
                 order.getId(),
@@ -225,29 +301,25 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-        OrderStatus newStatus;
+        OrderStatus newStatus = parseStatus(status);
 
-        try {
-            newStatus = OrderStatus.valueOf(status.toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            throw new BadRequestException("Invalid order status");
-        }
-
-        if (order.getStatus() == OrderStatus.CANCELLED) {
-            throw new BadRequestException("Cancelled order cannot be updated");
+        if (order.getStatus() == OrderStatus.PENDING) {
+            throw new BadRequestException("Order is still on hold");
         }
 
-        if (order.getStatus() == OrderStatus.PLACED && newStatus != OrderStatus.CONFIRMED) {
-            throw new BadRequestException("Order must be CONFIRMED first");
-        }
-
-        if (order.getStatus() == OrderStatus.CONFIRMED && newStatus != OrderStatus.COMPLETED) {
-            throw new BadRequestException("Order must be COMPLETED after confirmation");
+        if (!order.getStatus().canTransitionTo(newStatus)) {
+            throw new BadRequestException(
+                    "Order cannot move from " + order.getStatus() + " to " + newStatus);
         }
 
         order.setStatus(newStatus);
         orderRepository.save(order);
 
+        if (!OrderStatus.OCCUPYING.contains(newStatus)) {
+            reservations.releaseCars(List.of(order.getId()));
+        }
+        events.record(order, OrderEvents.statusEventType(newStatus));
+
         return new OrderResponseDto(
                 order.getId(),
                 order.getTotalAmount(),
@@ -259,6 +331,57 @@ public class OrderServiceImpl implements OrderService {
                 List.of());
     }
 
+    // Holds are the customer's to confirm, so companies never move PENDING orders
+    @Override
+    @Transactional
+    public BulkStatusUpdateResponse updateOrderStatusesForCompany(Long companyId, List<Long> orderIds,
+            String status) {
+
+        OrderStatus newStatus = parseStatus(status);
+        List<OrderStatus> fromStatuses = OrderStatus.sourcesOf(newStatus).stream()
+                .filter(from -> from != OrderStatus.PENDING)
+                .toList();
+        if (fromStatuses.isEmpty()) {
+            throw new BadRequestException("Orders cannot be moved to " + newStatus);
+        }
+
+        Set<Long> requested = new TreeSet<>(orderIds);
+        List<Long> updated = orderRepository.findForTransitionWithLock(requested, companyId, fromStatuses)
+                .stream()
+                .map(Order::getId)
+                .toList();
+
+        if (!updated.isEmpty()) {
+            orderRepository.updateStatus(updated, newStatus);
+            if (!OrderStatus.OCCUPYING.contains(newStatus)) {
+                reservations.releaseCars(updated);
+            }
+            events.recordStatusChanges(updated, newStatus);
+        }
+
+        requested.removeAll(updated);
+        return new BulkStatusUpdateResponse(newStatus.name(), updated, new ArrayList<>(requested));
+    }
+
+    // ================= LIFECYCLE =================
+    @Override
+    public String claimLifecycleBatch(OrderStatus from, int batchSize) {
+        return orderLifecycle.claimBatch(from, batchSize);
+    }
+
+    @Override
+    public int advanceLifecycleBatch(String leaseOwner, OrderStatus from, OrderStatus to) {
+        return orderLifecycle.advanceBatch(leaseOwner, from, to);
+    }
+
+    private OrderStatus parseStatus(String status) {
+        try {
+            return OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid order status");
+        }
+    }
+
     // ================= ORDER DETAILS =================
     @Override
     @Transactional(readOnly = true)
@@ -266,6 +389,7 @@ public class OrderServiceImpl implements OrderService {
 
         Order order = orderRepository.findOrderWithDetails(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Set<Long> ratedCarIds = ratingRepository.findRatedCarIdsByOrderId(orderId);
 
         return new OrderResponseDto(
                 order.getId(),
@@ -276,31 +400,30 @@ public class OrderServiceImpl implements OrderService {
                 order.getCompany() != null ? order.getCompany().getId() : null,
                 order.getOwner() != null ? order.getOwner().getId() : null,
                 order.getOrderItems().stream()
-                        .map(item -> new com.cargorent.dto.OrderItemResponseDto(
-                                item.getCar().getId(),
-                                item.getCar().getModel(),
-                                item.getNumberOfDays(),
-                                item.getPrice(),
-                                ratingRepository.existsByOrderIdAndCarId(order.getId(), item.getCar().getId())))
+                        .map(item -> toItemResponse(item, ratedCarIds))
                         .toList());
     }
 
     // ================= ORDER HISTORY =================
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponseDto> getOrdersByCustomerPage(Long customerId, String status,
+            LocalDate createdFrom, LocalDate createdTo, String cursor, int limit) {
+        validatePageSize(limit);
+        OrderCursor after = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findCustomerOrdersPage(customerId,
+                status != null ? parseStatus(status) : null,
+                createdFrom != null ? createdFrom.atStartOfDay() : null,
+                createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, limit + 1)), limit);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<OrderResponseDto> getOrdersByCustomer(Long customerId) {
 
-        return orderRepository.findOrdersByCustomer(customerId)
-                .stream()
-                .map(order -> new OrderResponseDto(
-                        order.getId(),
-                        order.getTotalAmount(),
-                        order.getStatus().name(),
-                        order.getCreatedAt(),
-                        order.getCustomer().getId(),
-                        order.getCompany() != null ? order.getCompany().getId() : null,
-                        order.getOwner() != null ? order.getOwner().getId() : null,
-                        List.of()))
-                .toList();
+        return mapToOrderSummaries(orderRepository.findOrdersByCustomer(customerId));
     }
 }
\ No newline at end of file
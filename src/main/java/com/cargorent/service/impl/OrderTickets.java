@@ -0,0 +1,137 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.dto.BulkOrderResponse;
+import com.cargorent.dto.OrderPlacementResponse;
+import com.cargorent.dto.PlaceOrderRequest;
+import com.cargorent.entity.OrderTicket;
+import com.cargorent.entity.OrderTicketStatus;
+import com.cargorent.repository.OrderTicketRepository;
+import com.cargorent.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Database side of queued placement: tickets are written when accepted, claimed in
+ * leased batches by whichever node has free workers, and finished in the same
+ * transaction as the orders they place.
+ */
+@Component
+public class OrderTickets {
+
+    private final OrderTicketRepository ticketRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final long leaseSeconds;
+    private final long ticketTtlMinutes;
+
+    public OrderTickets(OrderTicketRepository ticketRepository, OrderService orderService, ObjectMapper objectMapper,
+            @Value("${cargorent.order-intake.lease-seconds:60}") long leaseSeconds,
+            @Value("${cargorent.order-intake.ticket-ttl-minutes:30}") long ticketTtlMinutes) {
+        this.ticketRepository = ticketRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.leaseSeconds = leaseSeconds;
+        this.ticketTtlMinutes = ticketTtlMinutes;
+    }
+
+    @Transactional
+    public OrderTicket create(PlaceOrderRequest request, Long customerId, String idempotencyKey) {
+        try {
+            return ticketRepository.save(OrderTicket.builder()
+                    .customerId(customerId)
+                    .idempotencyKey(idempotencyKey)
+                    .request(objectMapper.writeValueAsString(request))
+                    .status(OrderTicketStatus.QUEUED)
+                    .build());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialise queued order", ex);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderTicket> find(String ticketId, Long customerId) {
+        return ticketRepository.findByIdAndCustomerId(ticketId, customerId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countQueued() {
+        return ticketRepository.countByStatus(OrderTicketStatus.QUEUED);
+    }
+
+    // The claim commits on its own, so other nodes skip these tickets until the lease runs out
+    @Transactional
+    public List<OrderTicket> claim(int batchSize) {
+        String leaseOwner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (ticketRepository.claim(leaseOwner, now.plusSeconds(leaseSeconds), now, batchSize) == 0) {
+            return List.of();
+        }
+        return ticketRepository.findByLeaseOwnerAndStatusOrderBySubmittedAt(leaseOwner,
+                OrderTicketStatus.PROCESSING);
+    }
+
+    // Any failure rolls the order and the ticket back together; the caller records it
+    @Transactional
+    public OrderPlacementResponse placeOne(OrderTicket ticket) {
+        OrderPlacementResponse order = orderService.placeOrder(readRequest(ticket), ticket.getCustomerId(),
+                ticket.getIdempotencyKey());
+        finishOrThrow(ticket, OrderTicketStatus.PLACED, order.getOrderId(), null);
+        return order;
+    }
+
+    // One transaction for a customer's queued orders; each one can still fail on its own
+    @Transactional
+    public BulkOrderResponse placeGroup(Long customerId, List<OrderTicket> tickets) {
+        BulkOrderResponse response = orderService.placeOrders(tickets.stream().map(this::readRequest).toList(),
+                customerId);
+
+        for (BulkOrderResponse.Result result : response.getResults()) {
+            OrderTicket ticket = tickets.get(result.getIndex());
+            if ("PLACED".equals(result.getStatus())) {
+                finishOrThrow(ticket, OrderTicketStatus.PLACED, result.getOrderId(), null);
+            } else {
+                finishOrThrow(ticket, OrderTicketStatus.FAILED, null, result.getError());
+            }
+        }
+        return response;
+    }
+
+    @Transactional
+    public void complete(OrderTicket ticket, Long orderId) {
+        ticketRepository.finish(ticket.getId(), ticket.getLeaseOwner(), OrderTicketStatus.PLACED, orderId, null);
+    }
+
+    @Transactional
+    public void fail(OrderTicket ticket, String error) {
+        ticketRepository.finish(ticket.getId(), ticket.getLeaseOwner(), OrderTicketStatus.FAILED, null, error);
+    }
+
+    @Transactional
+    public int purgeFinished() {
+        return ticketRepository.deleteFinishedBefore(LocalDateTime.now().minusMinutes(ticketTtlMinutes));
+    }
+
+    // A node that lost its lease must not commit an order the new owner will place again
+    private void finishOrThrow(OrderTicket ticket, OrderTicketStatus status, Long orderId, String error) {
+        if (ticketRepository.finish(ticket.getId(), ticket.getLeaseOwner(), status, orderId, error) == 0) {
+            throw new IllegalStateException("Lease on order ticket " + ticket.getId() + " was taken over");
+        }
+    }
+
+    private PlaceOrderRequest readRequest(OrderTicket ticket) {
+        try {
+            return objectMapper.readValue(ticket.getRequest(), PlaceOrderRequest.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read queued order " + ticket.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cargorent.service.impl;
+
+import java.time.LocalDateTime;
+
+// What in-process listeners receive for each relayed outbox event
+public record OutboxPublishedEvent(
+        Long id,
+        String aggregateType,
+        Long aggregateId,
+        String eventType,
+        String payload,
+        LocalDateTime createdAt) {
+}
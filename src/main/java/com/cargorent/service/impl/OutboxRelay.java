@@ -0,0 +1,50 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.service.OutboxService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@lombok.extern.slf4j.Slf4j
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final List<OutboxSink> sinks;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxService outboxService, List<OutboxSink> sinks,
+            @Value("${cargorent.outbox.relay-enabled:true}") boolean enabled,
+            @Value("${cargorent.outbox.batch-size:500}") int batchSize) {
+        this.outboxService = outboxService;
+        this.sinks = sinks;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    // Runs on every node, since sinks are node-local; each sink keeps its own offset per node,
+    // so a failing sink does not hold the others back
+    @Scheduled(fixedDelayString = "${cargorent.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        for (OutboxSink sink : sinks) {
+            int relayed;
+            do {
+                relayed = outboxService.relayBatch(sink.getName());
+            } while (relayed == batchSize);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cargorent.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        int purged = outboxService.purgeDelivered();
+        if (purged > 0) {
+            log.info("Purged {} delivered outbox events", purged);
+        }
+    }
+}
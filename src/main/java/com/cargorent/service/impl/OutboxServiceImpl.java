@@ -0,0 +1,333 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OutboxEvent;
+import com.cargorent.entity.OutboxGap;
+import com.cargorent.entity.OutboxOffset;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.repository.OutboxEventRepository;
+import com.cargorent.repository.OutboxGapRepository;
+import com.cargorent.repository.OutboxOffsetRepository;
+import com.cargorent.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Both sinks act on node-local state: the segment log is written to local disk and the
+ * event bus only reaches listeners in this JVM, such as the invoice store that pre-renders
+ * into its local directory. Offsets and gaps are therefore kept per node (keyed
+ * {@code sink@node-id}), so every node relays every event to its own sinks rather than
+ * one node winning each batch. Replays and stats apply to the calling node only.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    // Bounds the bookkeeping for one batch if ids ever jump far ahead
+    private static final int MAX_NEW_GAPS_PER_BATCH = 10_000;
+    // Length of outbox_offsets.sink and outbox_gaps.sink
+    private static final int MAX_OFFSET_KEY_LENGTH = 50;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final OutboxGapRepository outboxGapRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, OutboxSink> sinksByName = new LinkedHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final long gapCheckIntervalMillis;
+    private final long retentionDays;
+    private final String nodeId;
+    // Per offset key; only this node relays its own keys
+    private final Map<String, Long> nextGapCheckAt = new ConcurrentHashMap<>();
+
+    public OutboxServiceImpl(
+            OutboxEventRepository outboxEventRepository,
+            OutboxOffsetRepository outboxOffsetRepository,
+            OutboxGapRepository outboxGapRepository,
+            JdbcTemplate jdbcTemplate,
+            List<OutboxSink> sinks,
+            ObjectMapper objectMapper,
+            @Value("${cargorent.outbox.batch-size:500}") int batchSize,
+            @Value("${cargorent.outbox.gap-timeout-ms:300000}") long gapTimeoutMillis,
+            @Value("${cargorent.outbox.gap-check-interval-ms:5000}") long gapCheckIntervalMillis,
+            @Value("${cargorent.outbox.retention-days:7}") long retentionDays,
+            @Value("${cargorent.outbox.node-id:}") String nodeId) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.outboxGapRepository = outboxGapRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        sinks.forEach(sink -> sinksByName.put(sink.getName(), sink));
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.gapCheckIntervalMillis = gapCheckIntervalMillis;
+        this.retentionDays = retentionDays;
+        this.nodeId = nodeId.isBlank() ? hostName() : nodeId;
+        log.info("Outbox relay node id is {}", this.nodeId);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            throw new IllegalStateException("Could not resolve the host name, set cargorent.outbox.node-id", ex);
+        }
+    }
+
+    // Keeps the tail of long node ids, where pod names carry their unique suffix
+    private String offsetKey(String sinkName) {
+        String key = sinkName + "@" + nodeId;
+        return key.length() <= MAX_OFFSET_KEY_LENGTH ? key
+                : sinkName + "@" + key.substring(key.length() - (MAX_OFFSET_KEY_LENGTH - sinkName.length() - 1));
+    }
+
+    // ================= RECORD =================
+    // Joins the caller's transaction so the event commits or rolls back with the change
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(toJson(eventType, payload))
+                .build());
+    }
+
+    // IDENTITY ids stop Hibernate from batching saves, so set-based changes write their
+    // events through one JDBC batch (a single multi-row insert on MySQL)
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(String aggregateType, String eventType, List<Long> aggregateIds,
+            Function<Long, Map<String, Object>> payloads) {
+        if (aggregateIds.isEmpty()) {
+            return;
+        }
+
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(aggregateIds.size());
+        for (Long aggregateId : aggregateIds) {
+            rows.add(new Object[] { aggregateType, aggregateId, eventType,
+                    toJson(eventType, payloads.apply(aggregateId)), createdAt });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, "
+                + "created_at) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private String toJson(String eventType, Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialise outbox payload for " + eventType, ex);
+        }
+    }
+
+    // ================= RELAY =================
+    // Ids come from an auto-increment column, so a transaction that commits late can leave
+    // a lower id behind the offset. Ids missing below the newest relayed event are kept as
+    // gaps and looked up again every gap-check interval until they appear or the gap timeout
+    // passes. Sinks get events in id order except for those late ones, which follow with a
+    // later batch after higher ids.
+    @Override
+    @Transactional
+    public int relayBatch(String sinkName) {
+        OutboxSink sink = getSink(sinkName);
+        String key = offsetKey(sinkName);
+        OutboxOffset offset = lockOffset(key).orElse(null);
+        if (offset == null) {
+            return 0;
+        }
+
+        boolean checkGaps = System.currentTimeMillis() >= nextGapCheckAt.getOrDefault(key, 0L);
+        List<OutboxEvent> late = checkGaps
+                ? outboxEventRepository.findFilledGaps(key, PageRequest.of(0, batchSize))
+                : List.of();
+        List<OutboxEvent> events = outboxEventRepository.findBatchAfter(offset.getLastEventId(),
+                PageRequest.of(0, batchSize));
+
+        if (!late.isEmpty() || !events.isEmpty()) {
+            List<OutboxEvent> batch = new ArrayList<>(late);
+            batch.addAll(events);
+            try {
+                sink.publish(batch);
+            } catch (Exception ex) {
+                log.warn("Outbox sink {} failed at event {}, will retry", sinkName, batch.get(0).getId(), ex);
+                return 0;
+            }
+        }
+
+        if (checkGaps) {
+            settleGaps(sinkName, key, late);
+            // A full page may have left more filled gaps behind, so those go with the next batch
+            nextGapCheckAt.put(key, late.size() == batchSize ? 0L
+                    : System.currentTimeMillis() + gapCheckIntervalMillis);
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        trackGaps(sinkName, key, offset.getLastEventId(), events);
+        offset.setLastEventId(events.get(events.size() - 1).getId());
+        offset.setUpdatedAt(LocalDateTime.now());
+        return events.size();
+    }
+
+    // Drops gaps that were delivered and gives up on those past the timeout
+    private void settleGaps(String sinkName, String key, List<OutboxEvent> late) {
+        if (!late.isEmpty()) {
+            outboxGapRepository.deleteFilled(key, late.stream().map(OutboxEvent::getId).toList());
+        }
+
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(Duration.ofMillis(gapTimeoutMillis));
+        List<OutboxGap> expired = outboxGapRepository.findBySinkAndFirstSeenAtBefore(key, expiredBefore);
+        for (OutboxGap gap : expired) {
+            // A rolled-back insert also ends here; the id alone cannot tell the two apart
+            log.warn("Outbox sink {} gave up on event {}: not visible {} ms after its gap was seen, "
+                    + "treating it as lost", sinkName, gap.getEventId(), gapTimeoutMillis);
+        }
+        outboxGapRepository.deleteAllInBatch(expired);
+    }
+
+    private void trackGaps(String sinkName, String key, long afterId, List<OutboxEvent> events) {
+        // Ids below an event already older than the timeout would be given up on at once
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime trackableAfter = now.minus(Duration.ofMillis(gapTimeoutMillis));
+        List<OutboxGap> gaps = new ArrayList<>();
+        long skipped = 0;
+
+        long expected = afterId + 1;
+        for (OutboxEvent event : events) {
+            if (event.getId() > expected) {
+                long missing = event.getId() - expected;
+                if (!event.getCreatedAt().isAfter(trackableAfter)
+                        || gaps.size() + missing > MAX_NEW_GAPS_PER_BATCH) {
+                    skipped += missing;
+                } else {
+                    for (long id = expected; id < event.getId(); id++) {
+                        gaps.add(new OutboxGap(null, key, id, now));
+                    }
+                }
+            }
+            expected = event.getId() + 1;
+        }
+
+        if (skipped > 0) {
+            log.warn("Outbox sink {} skipped {} missing ids after event {} without tracking them",
+                    sinkName, skipped, afterId);
+        }
+        outboxGapRepository.saveAll(gaps);
+    }
+
+    @Override
+    @Transactional
+    public void replayFrom(String sinkName, long fromEventId) {
+        getSink(sinkName);
+        if (fromEventId < 1) {
+            throw new BadRequestException("Replay must start at event id 1 or later");
+        }
+
+        String key = offsetKey(sinkName);
+        OutboxOffset offset = outboxOffsetRepository.findBySinkWithLock(key)
+                .orElseGet(() -> new OutboxOffset(key, 0L, LocalDateTime.now()));
+        // Everything from the replay point is read again, including ids still tracked as gaps
+        outboxGapRepository.deleteFrom(key, fromEventId);
+        offset.setLastEventId(fromEventId - 1);
+        offset.setUpdatedAt(LocalDateTime.now());
+        outboxOffsetRepository.save(offset);
+        log.info("Outbox sink {} on node {} rewound to replay from event {}", sinkName, nodeId, fromEventId);
+    }
+
+    private OutboxSink getSink(String sinkName) {
+        OutboxSink sink = sinksByName.get(sinkName);
+        if (sink == null) {
+            throw new BadRequestException("Unknown outbox sink: " + sinkName);
+        }
+        return sink;
+    }
+
+    // A new node starts just before the oldest retained event, as ids below it were purged
+    // rather than skipped. With nothing retained there is nothing to relay and no offset yet.
+    private Optional<OutboxOffset> lockOffset(String key) {
+        Optional<OutboxOffset> offset = outboxOffsetRepository.findBySinkWithLock(key);
+        if (offset.isPresent()) {
+            return offset;
+        }
+        Long oldestId = outboxEventRepository.findOldestId();
+        if (oldestId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(outboxOffsetRepository.saveAndFlush(
+                new OutboxOffset(key, oldestId - 1, LocalDateTime.now())));
+    }
+
+    // ================= STATS =================
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, Object>> stats() {
+        long latestId = outboxEventRepository.findLatestId();
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+
+        for (String sinkName : sinksByName.keySet()) {
+            String key = offsetKey(sinkName);
+            long lastEventId = outboxOffsetRepository.findById(key)
+                    .map(OutboxOffset::getLastEventId)
+                    .orElse(0L);
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("node", nodeId);
+            values.put("lastEventId", lastEventId);
+            values.put("latestEventId", latestId);
+            values.put("lagEvents", outboxEventRepository.countByIdGreaterThan(lastEventId));
+            values.put("lagSeconds", outboxEventRepository.findFirstByIdGreaterThanOrderByIdAsc(lastEventId)
+                    .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).toSeconds())
+                    .orElse(0L));
+            values.put("pendingGaps", outboxGapRepository.countBySink(key));
+            stats.put(sinkName, values);
+        }
+        return stats;
+    }
+
+    // ================= RETENTION =================
+    // Keeps everything some node's sink has not yet accepted, plus a window for replays.
+    // Offsets of other nodes that have not moved within the retention window are taken to
+    // belong to departed nodes and no longer hold events back.
+    @Override
+    @Transactional
+    public int purgeDelivered() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long deliveredUpTo = Long.MAX_VALUE;
+        for (String sinkName : sinksByName.keySet()) {
+            String key = offsetKey(sinkName);
+            if (outboxOffsetRepository.findById(key).isEmpty()) {
+                return 0;
+            }
+            for (OutboxOffset offset : outboxOffsetRepository.findBySinkStartingWith(sinkName + "@")) {
+                if (offset.getSink().equals(key) || !offset.getUpdatedAt().isBefore(cutoff)) {
+                    deliveredUpTo = Math.min(deliveredUpTo, offset.getLastEventId());
+                }
+            }
+        }
+
+        return outboxEventRepository.deleteDelivered(deliveredUpTo, cutoff);
+    }
+}
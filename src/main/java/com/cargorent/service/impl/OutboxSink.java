@@ -0,0 +1,16 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OutboxEvent;
+
+import java.util.List;
+
+// A destination for relayed outbox events. A batch that throws is retried from the same offset,
+// so sinks must tolerate seeing an event more than once. Events that committed late arrive
+// after higher ids, up to one gap-check interval after they commit, so sinks must not rely on
+// strict id order either.
+public interface OutboxSink {
+
+    String getName();
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -13,12 +13,15 @@ import com.cargorent.repository.CarRepository;
 import com.cargorent.repository.OrderRepository;
 import com.cargorent.repository.RatingRepository;
 import com.cargorent.repository.UserRepository;
+import com.cargorent.service.OutboxService;
 import com.cargorent.service.RatingService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,16 +31,22 @@ public class RatingServiceImpl implements RatingService {
     private final OrderRepository orderRepository;
     private final CarRepository carRepository;
     private final UserRepository userRepository;
+    private final CarCatalogCache carCatalogCache;
+    private final OutboxService outboxService;
 
     public RatingServiceImpl(
             RatingRepository ratingRepository,
             OrderRepository orderRepository,
             CarRepository carRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            CarCatalogCache carCatalogCache,
+            OutboxService outboxService) {
         this.ratingRepository = ratingRepository;
         this.orderRepository = orderRepository;
         this.carRepository = carRepository;
         this.userRepository = userRepository;
+        this.carCatalogCache = carCatalogCache;
+        this.outboxService = outboxService;
     }
 
     @Override
@@ -81,6 +90,16 @@ public class RatingServiceImpl implements RatingService {
                 .build();
 
         Rating savedRating = ratingRepository.save(rating);
+        carRepository.incrementRatingStats(car.getId(), request.getRating());
+        carCatalogCache.evictCarAfterCommit(car.getId(), car.getCompany() != null ? car.getCompany().getId() : null);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("ratingId", savedRating.getId());
+        payload.put("orderId", order.getId());
+        payload.put("carId", car.getId());
+        payload.put("userId", userId);
+        payload.put("rating", savedRating.getRating());
+        outboxService.record("RATING", savedRating.getId(), "RATING_ADDED", payload);
 
         return mapToDto(savedRating);
     }
@@ -93,6 +112,19 @@ public class RatingServiceImpl implements RatingService {
                 .collect(Collectors.toList());
     }
 
+    // Rebuilds rating_count/rating_sum from the ratings table for the cars that drifted
+    @Override
+    @Transactional
+    public int reconcileRatingStats() {
+        List<Long> carIds = carRepository.findIdsWithStaleRatingStats();
+        if (carIds.isEmpty()) {
+            return 0;
+        }
+        int updated = carRepository.reconcileRatingStats(carIds);
+        carCatalogCache.evictCarsAfterCommit(carIds);
+        return updated;
+    }
+
     private RatingResponseDto mapToDto(Rating rating) {
         return new RatingResponseDto(
                 rating.getId(),
@@ -0,0 +1,89 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.RefreshToken;
+import com.cargorent.exception.BadRequestException;
+import com.cargorent.repository.RefreshTokenRepository;
+import com.cargorent.security.JwtUtil;
+import com.cargorent.service.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Refresh tokens are single use. Each refresh revokes the presented token and issues
+ * a new one; a revoked token coming back means it was copied, so every refresh token
+ * of that user is revoked and all of their sessions have to log in again.
+ */
+@Service
+@lombok.extern.slf4j.Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, JwtUtil jwtUtil) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    @Transactional
+    public String issue(Long userId) {
+        String tokenId = UUID.randomUUID().toString();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenId(tokenId)
+                .userId(userId)
+                .expiresAt(LocalDateTime.now().plus(jwtUtil.getRefreshTokenExpiry(), ChronoUnit.MILLIS))
+                .build());
+        return jwtUtil.generateRefreshToken(userId, tokenId);
+    }
+
+    // The reuse revocation has to commit even though the request is rejected
+    @Override
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public Rotation rotate(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseRefreshToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid refresh token");
+        }
+
+        String tokenId = claims.getId();
+        if (tokenId == null) {
+            throw new BadRequestException("Invalid refresh token");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshTokenRepository.revokeIfActive(tokenId, now) == 0) {
+            refreshTokenRepository.findByTokenId(tokenId)
+                    .filter(token -> token.getRevokedAt() != null)
+                    .ifPresent(token -> {
+                        int revoked = refreshTokenRepository.revokeAllForUser(token.getUserId(), now);
+                        log.warn("Refresh token reused for user {}, revoked {} active tokens", token.getUserId(),
+                                revoked);
+                    });
+            throw new BadRequestException("Invalid refresh token");
+        }
+
+        Long userId = Long.parseLong(claims.getSubject());
+        return new Rotation(userId, issue(userId));
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${cargorent.refresh-token.purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+        return purged;
+    }
+}
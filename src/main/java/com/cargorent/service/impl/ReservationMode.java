@@ -0,0 +1,8 @@
+package com.cargorent.service.impl;
+
+public enum ReservationMode {
+    // Lock the requested cars and check overlaps with a query before writing day slots
+    ROW_LOCK,
+    // Skip the car locks; the car_booking_days primary key rejects conflicting slots on insert
+    SLOTS
+}
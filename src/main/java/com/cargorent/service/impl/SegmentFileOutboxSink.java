@@ -0,0 +1,92 @@
+package com.cargorent.service.impl;
+
+import com.cargorent.entity.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Appends relayed events as JSON lines to local segment files. A segment is named
+ * after the first event id it holds and is rolled once it reaches the size limit,
+ * so readers can seek to an id by file name. Late-committing events are appended
+ * where they arrive, so a segment may also hold a few ids lower than its name.
+ */
+@Component
+public class SegmentFileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxSegmentBytes;
+
+    public SegmentFileOutboxSink(ObjectMapper objectMapper,
+            @Value("${cargorent.outbox.segment-dir:data/outbox}") String directory,
+            @Value("${cargorent.outbox.segment-max-bytes:67108864}") long maxSegmentBytes) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    @Override
+    public String getName() {
+        return "segment-log";
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("id", event.getId());
+            line.put("aggregateType", event.getAggregateType());
+            line.put("aggregateId", event.getAggregateId());
+            line.put("eventType", event.getEventType());
+            line.put("createdAt", event.getCreatedAt().toString());
+            line.set("payload", objectMapper.readTree(event.getPayload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+
+        Path segment = currentSegment(events.get(0).getId());
+        try (FileChannel channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // The offset only moves after this returns, so the batch must be on disk first
+            channel.force(false);
+        }
+    }
+
+    private Path currentSegment(long firstEventId) throws IOException {
+        Files.createDirectories(directory);
+
+        Path latest;
+        try (Stream<Path> files = Files.list(directory)) {
+            latest = files
+                    .filter(path -> path.getFileName().toString().matches("segment-\\d{20}\\.log"))
+                    .max(Path::compareTo)
+                    .orElse(null);
+        }
+
+        if (latest != null && Files.size(latest) < maxSegmentBytes) {
+            return latest;
+        }
+        return directory.resolve(String.format("segment-%020d.log", firstEventId));
+    }
+}
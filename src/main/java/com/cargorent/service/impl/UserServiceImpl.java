@@ -1,28 +1,32 @@
 package com.cargorent.service.impl;
 
+import com.cargorent.entity.Company;
+import com.cargorent.entity.Role;
 import com.cargorent.entity.User;
 import com.cargorent.exception.BadRequestException;
+import com.cargorent.repository.CompanyRepository;
 import com.cargorent.repository.UserRepository;
+import com.cargorent.security.PasswordHasher;
 import com.cargorent.service.UserService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
-@org.springframework.transaction.annotation.Transactional
+@Transactional
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final com.cargorent.repository.CompanyRepository companyRepository;
+    private final PasswordHasher passwordHasher;
+    private final CompanyRepository companyRepository;
 
     public UserServiceImpl(UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
-            com.cargorent.repository.CompanyRepository companyRepository) {
+            PasswordHasher passwordHasher,
+            CompanyRepository companyRepository) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.companyRepository = companyRepository;
     }
 
@@ -34,14 +38,14 @@ public class UserServiceImpl implements UserService {
                     throw new BadRequestException("Email already registered");
                 });
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHasher.encode(user.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
 
         User savedUser = userRepository.save(user);
 
         // Auto-create Company profile if role is COMPANY
-        if (savedUser.getRole() == com.cargorent.entity.Role.COMPANY) {
-            com.cargorent.entity.Company company = new com.cargorent.entity.Company();
+        if (savedUser.getRole() == Role.COMPANY) {
+            Company company = new Company();
             company.setCompanyName(savedUser.getName());
             company.setUser(savedUser);
             company.setActive(false); // Inactive by default, requires Admin approval